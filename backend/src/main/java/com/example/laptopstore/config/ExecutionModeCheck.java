@@ -0,0 +1,36 @@
+package com.example.laptopstore.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the request execution mode at startup. Spring Boot silently ignores
+ * {@code spring.threads.virtual.enabled} below Java 21, so selecting the
+ * virtual-threads profile there would otherwise leave the app on platform threads,
+ * sized for virtual ones, without a trace in the log.
+ */
+@Component
+public class ExecutionModeCheck {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExecutionModeCheck.class);
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportExecutionMode() {
+        int javaVersion = Runtime.version().feature();
+        if (!virtualThreadsRequested) {
+            logger.info("Serving requests on platform threads");
+        } else if (javaVersion < 21) {
+            logger.warn("Virtual threads were requested but Java {} does not support them; "
+                    + "serving requests on platform threads. Run on Java 21+ for virtual-thread mode.", javaVersion);
+        } else {
+            logger.info("Serving requests on virtual threads");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.laptopstore.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else
+ * to the primary. The replica is only used while {@link ReplicaLagMonitor} reports
+ * it reachable and within the configured lag; a replica connection that cannot be
+ * opened falls back to the primary as well.
+ *
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}: the transaction's
+ * read-only flag is only known after the transaction manager has asked for a
+ * connection, so the physical connection has to be fetched lazily.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+    
+    private static final ThreadLocal<Boolean> forcePrimary = new ThreadLocal<>();
+    
+    private final DataSource primary;
+    private volatile boolean replicaUsable;
+    
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+    
+    /**
+     * Runs the work with every read going to the primary, for callers that must see
+     * a write that has just committed (e.g. reloading the catalog snapshot).
+     * No-op when routing is disabled.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = forcePrimary.get();
+        forcePrimary.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                forcePrimary.remove();
+            } else {
+                forcePrimary.set(previous);
+            }
+        }
+    }
+    
+    public void setReplicaUsable(boolean usable) {
+        if (replicaUsable != usable) {
+            logger.info("Read-only transactions now routed to the {}", usable ? REPLICA : PRIMARY);
+        }
+        replicaUsable = usable;
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return readOnly && replicaUsable && forcePrimary.get() == null ? REPLICA : PRIMARY;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!REPLICA.equals(determineCurrentLookupKey())) {
+            return primary.getConnection();
+        }
+        try {
+            return determineTargetDataSource().getConnection();
+        } catch (SQLException e) {
+            logger.warn("Replica connection failed, falling back to primary: {}", e.getMessage());
+            setReplicaUsable(false);
+            return primary.getConnection();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.laptopstore.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Measures replica lag with a heartbeat row: each check writes the current time to
+ * the primary and reads it back from the replica. The replica is usable while the
+ * heartbeat it returns is no older than {@code datasource.replica.max-lag-ms}; if
+ * it is behind, missing the table or unreachable, reads go to the primary until a
+ * later check succeeds.
+ *
+ * A replica that has not yet received the latest beat shows the previous one, so
+ * the measured lag can exceed the real lag by up to one check interval; keep
+ * {@code max-lag-ms} above {@code check-interval-ms}.
+ */
+public class ReplicaLagMonitor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final long maxLagMs;
+    
+    public ReplicaLagMonitor(DataSource primary, DataSource replica,
+                             ReadWriteRoutingDataSource routingDataSource, long maxLagMs) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.routingDataSource = routingDataSource;
+        this.maxLagMs = maxLagMs;
+        this.primary.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+    }
+    
+    @Scheduled(fixedDelayString = "${datasource.replica.check-interval-ms:1000}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", now);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not write replica heartbeat: {}", e.getMessage());
+            routingDataSource.setReplicaUsable(false);
+            return;
+        }
+        
+        try {
+            Long beatAt = replica.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+            long lag = beatAt == null ? Long.MAX_VALUE : System.currentTimeMillis() - beatAt;
+            if (lag > maxLagMs) {
+                logger.debug("Replica lag {} ms exceeds {} ms", lag, maxLagMs);
+            }
+            routingDataSource.setReplicaUsable(lag <= maxLagMs);
+        } catch (DataAccessException e) {
+            logger.debug("Replica heartbeat check failed: {}", e.getMessage());
+            routingDataSource.setReplicaUsable(false);
+        }
+    }
+}
@@ -2,10 +2,16 @@ package com.example.laptopstore.controller;
 
 import com.example.laptopstore.dto.*;
 import com.example.laptopstore.entity.User;
+import com.example.laptopstore.exception.ServiceUnavailableException;
+import com.example.laptopstore.service.RefreshTokenService;
 import com.example.laptopstore.service.UserService;
+import com.example.laptopstore.security.AuthRateLimiter;
 import com.example.laptopstore.security.JwtTokenProvider;
+import com.example.laptopstore.security.TokenRevocationList;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,18 +29,39 @@ public class AuthController {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
     
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+    
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
+    @Autowired
+    private TokenRevocationList revocationList;
+    
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody UserCreateDto userCreateDto) {
+    public ResponseEntity<?> registerUser(@Valid @RequestBody UserCreateDto userCreateDto, HttpServletRequest request) {
+        long retryAfter = authRateLimiter.checkAttempt(request.getRemoteAddr(), userCreateDto.getUsername());
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter);
+        }
+        
         try {
             UserResponseDto userResponse = userService.createUser(userCreateDto);
             return ResponseEntity.status(HttpStatus.CREATED).body(userResponse);
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new MessageResponseDto(e.getMessage()));
         }
     }
     
     @PostMapping("/login")
-    public ResponseEntity<?> loginUser(@Valid @RequestBody UserLoginDto userLoginDto) {
+    public ResponseEntity<?> loginUser(@Valid @RequestBody UserLoginDto userLoginDto, HttpServletRequest request) {
+        long retryAfter = authRateLimiter.checkAttempt(request.getRemoteAddr(), userLoginDto.getUsername());
+        if (retryAfter > 0) {
+            return tooManyRequests(retryAfter);
+        }
+        
         try {
             Optional<User> userOpt = userService.findByUsername(userLoginDto.getUsername());
             
@@ -50,14 +77,70 @@ public class AuthController {
                     .body(new MessageResponseDto("Invalid username or password"));
             }
             
-            String token = jwtTokenProvider.generateToken(user.getUsername());
-            
-            JwtResponseDto jwtResponse = new JwtResponseDto(token, user.getId(), user.getUsername());
-            return ResponseEntity.ok(jwtResponse);
+            return ResponseEntity.ok(issueTokens(user, refreshTokenService.issue(user.getId())));
             
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(new MessageResponseDto("Login failed: " + e.getMessage()));
         }
     }
+    
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequestDto refreshRequest) {
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        if (rotation.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new MessageResponseDto("Invalid or expired refresh token"));
+        }
+        return ResponseEntity.ok(issueTokens(rotation.get().getUser(), rotation.get().getRefreshToken()));
+    }
+    
+    /**
+     * Revokes the refresh token in the body, if any, and the access token the
+     * request was made with, so neither can be used again.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logoutUser(@RequestBody(required = false) RefreshTokenRequestDto logoutRequest,
+                                        @RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (logoutRequest != null && logoutRequest.getRefreshToken() != null) {
+            refreshTokenService.revoke(logoutRequest.getRefreshToken());
+        }
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            jwtTokenProvider.parseToken(authorization.substring(7)).ifPresent(claims ->
+                revocationList.revoke(claims.getId(), claims.getExpiration().getTime()));
+        }
+        return ResponseEntity.ok(new MessageResponseDto("Logged out"));
+    }
+    
+    @GetMapping("/available")
+    public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String username,
+                                               @RequestParam(required = false) String email) {
+        if ((username == null || username.isBlank()) && (email == null || email.isBlank())) {
+            return ResponseEntity.badRequest().body(new MessageResponseDto("username or email is required"));
+        }
+        
+        Boolean usernameAvailable = username == null || username.isBlank() ? null : userService.isUsernameAvailable(username);
+        Boolean emailAvailable = email == null || email.isBlank() ? null : userService.isEmailAvailable(email);
+        return ResponseEntity.ok(new AvailabilityResponseDto(usernameAvailable, emailAvailable));
+    }
+    
+    private JwtResponseDto issueTokens(User user, String refreshToken) {
+        String accessToken = jwtTokenProvider.generateToken(user);
+        return new JwtResponseDto(accessToken, refreshToken, jwtTokenProvider.getExpirationMs() / 1000,
+            user.getId(), user.getUsername());
+    }
+    
+    private ResponseEntity<MessageResponseDto> tooManyRequests(long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+            .body(new MessageResponseDto("Too many attempts, please retry later"));
+    }
+    
+    private ResponseEntity<MessageResponseDto> serviceUnavailable(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(new MessageResponseDto(e.getMessage()));
+    }
 }
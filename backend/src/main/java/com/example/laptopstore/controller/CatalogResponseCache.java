@@ -0,0 +1,146 @@
+package com.example.laptopstore.controller;
+
+import com.example.laptopstore.service.CatalogCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches catalog response bodies as ready-to-send bytes, both plain and gzipped,
+ * keyed by request and tagged with the catalog snapshot version they were built
+ * from. Repeated requests are answered by copying bytes instead of re-running
+ * Jackson and the compressor; an entry is rebuilt once the catalog version moves on.
+ *
+ * Responses carry a strong ETag made of a per-process epoch and the catalog
+ * version, so a revalidation whose If-None-Match still names the current version is
+ * answered with 304 before any body is looked up, built or serialized. The epoch
+ * keeps tags from an earlier run, whose version counter started over, from matching.
+ */
+@Component
+public class CatalogResponseCache {
+    
+    // Below this size gzip saves too little to be worth the Content-Encoding round trip
+    private static final int GZIP_MIN_SIZE = 2048;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${catalog.response-cache.max-entries:1024}")
+    private int maxEntries;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    
+    public ResponseEntity<byte[]> respond(HttpServletRequest request, String key, Supplier<?> body) {
+        long version = catalogCache.current().getVersion();
+        String etag = "\"" + epoch + "-" + version + "\"";
+        String gzipEtag = "\"" + epoch + "-" + version + "-gzip\"";
+        
+        String matched = matchIfNoneMatch(request, etag, gzipEtag);
+        if (matched != null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(matched)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+        
+        Entry entry = entries.get(key);
+        if (entry == null || entry.version != version) {
+            entry = build(version, body.get());
+            if (entries.size() >= maxEntries) {
+                entries.values().removeIf(cached -> cached.version != version);
+                if (entries.size() >= maxEntries) {
+                    entries.clear();
+                }
+            }
+            entries.put(key, entry);
+        }
+        
+        // no-cache lets browsers store the body but makes them revalidate with the ETag
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(CacheControl.noCache())
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (entry.gzip != null && acceptsGzip(request)) {
+            return response.eTag(gzipEtag).header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzip);
+        }
+        return response.eTag(etag).body(entry.identity);
+    }
+    
+    private Entry build(long version, Object body) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(body);
+            return new Entry(version, identity, identity.length >= GZIP_MIN_SIZE ? gzip(identity) : null);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize catalog response", e);
+        }
+    }
+    
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compress catalog response", e);
+        }
+        return buffer.toByteArray();
+    }
+    
+    private static String matchIfNoneMatch(HttpServletRequest request, String etag, String gzipEtag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses weak comparison, so a W/ prefix added by a proxy still matches
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return etag;
+            }
+            if (tag.equals(gzipEtag)) {
+                return gzipEtag;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+    
+    private static final class Entry {
+        private final long version;
+        private final byte[] identity;
+        private final byte[] gzip;
+        
+        private Entry(long version, byte[] identity, byte[] gzip) {
+            this.version = version;
+            this.identity = identity;
+            this.gzip = gzip;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.laptopstore.controller;
+
+import com.example.laptopstore.dto.MessageResponseDto;
+import com.example.laptopstore.exception.InsufficientStockException;
+import com.example.laptopstore.service.OrderIntakeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers responses by the client's {@code Idempotency-Key} header, scoped to the
+ * user, so a retried request gets the original response instead of running again.
+ *
+ * The first request with a key runs; duplicates that arrive while it is in flight
+ * wait for its result, and later ones are answered from the store for
+ * {@code orders.idempotency.ttl-ms}, marked with {@code Idempotent-Replayed: true}.
+ * A key reused with a different request body is refused. Only responses that will
+ * not change are kept: 5xx responses and exceptions are dropped, so a request turned
+ * away under load or failed on a transient condition (see
+ * {@link InsufficientStockException}) can be retried with the same key. A 202 is kept
+ * only as long as the intake handle it points to, {@code orders.async.result-ttl-ms}.
+ * At most {@code max-entries} keys are held; a full store drops expired
+ * entries first, then the oldest completed ones.
+ */
+@Component
+public class IdempotencyStore {
+    
+    public static final String HEADER = "Idempotency-Key";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+    
+    @Value("${orders.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+    
+    @Value("${orders.idempotency.max-entries:100000}")
+    private int maxEntries;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private Counter replayed;
+    
+    @PostConstruct
+    void init() {
+        replayed = Counter.builder("orders.idempotency.replayed").register(meterRegistry);
+    }
+    
+    public ResponseEntity<?> execute(Long userId, String key, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                .body(new MessageResponseDto(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters"));
+        }
+        String scopedKey = userId + ":" + key;
+        String fingerprint = fingerprint(request);
+        Entry created = new Entry(fingerprint);
+        
+        while (true) {
+            Entry existing = entries.putIfAbsent(scopedKey, created);
+            if (existing == null) {
+                break;
+            }
+            if (existing.isExpired(System.currentTimeMillis())) {
+                entries.remove(scopedKey, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                return ResponseEntity.badRequest()
+                    .body(new MessageResponseDto(HEADER + " was already used for a different request"));
+            }
+            replayed.increment();
+            return replay(existing);
+        }
+        
+        if (entries.size() > maxEntries) {
+            evict();
+        }
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            entries.remove(scopedKey, created);
+            created.response.completeExceptionally(e);
+            throw e;
+        }
+        long retainMs = retention(response);
+        if (retainMs <= 0) {
+            entries.remove(scopedKey, created);
+        }
+        created.expiresAt = System.currentTimeMillis() + retainMs;
+        created.response.complete(response);
+        return response;
+    }
+    
+    @Scheduled(fixedDelayString = "${orders.idempotency.cleanup-interval-ms:60000}")
+    public void removeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+    
+    // A replayed 202 must not outlive the handle in its Location, which is kept at
+    // least result-ttl-ms from acceptance
+    private long retention(ResponseEntity<?> response) {
+        if (response.getStatusCode().is5xxServerError()) {
+            return 0;
+        }
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.ACCEPTED)) {
+            return Math.min(ttlMs, orderIntakeService.getResultTtlMs());
+        }
+        return ttlMs;
+    }
+    
+    private ResponseEntity<?> replay(Entry entry) {
+        ResponseEntity<?> original;
+        try {
+            original = entry.response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return ResponseEntity.status(original.getStatusCode())
+            .headers(headers -> {
+                headers.addAll(original.getHeaders());
+                headers.set("Idempotent-Replayed", "true");
+            })
+            .body(original.getBody());
+    }
+    
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        
+        // Still full: drop the oldest quarter of completed entries; in-flight ones stay
+        int excess = entries.size() - (maxEntries * 3 / 4);
+        if (excess <= 0) {
+            return;
+        }
+        // Remove by key and entry, so a key re-claimed meanwhile by a new request stays
+        entries.entrySet().stream()
+            .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+            .filter(entry -> entry.getValue().expiresAt != Long.MAX_VALUE)
+            .sorted(Comparator.comparingLong(entry -> entry.getValue().expiresAt))
+            .limit(excess)
+            .toList()
+            .forEach(entry -> entries.remove(entry.getKey(), entry.getValue()));
+    }
+    
+    private String fingerprint(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+    
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        // Counts from completion; an in-flight entry never expires
+        private volatile long expiresAt = Long.MAX_VALUE;
+        
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+        
+        private boolean isExpired(long now) {
+            return expiresAt < now;
+        }
+    }
+}
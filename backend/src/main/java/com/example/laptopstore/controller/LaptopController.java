@@ -1,12 +1,15 @@
 package com.example.laptopstore.controller;
 
+import com.example.laptopstore.dto.CursorPageDto;
+import com.example.laptopstore.dto.LaptopFilterDto;
+import com.example.laptopstore.dto.MessageResponseDto;
 import com.example.laptopstore.entity.Laptop;
 import com.example.laptopstore.service.LaptopService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -17,34 +20,61 @@ public class LaptopController {
     @Autowired
     private LaptopService laptopService;
     
+    @Autowired
+    private CatalogResponseCache responseCache;
+    
     @GetMapping
-    public ResponseEntity<List<Laptop>> getAllLaptops() {
-        List<Laptop> laptops = laptopService.getAllLaptops();
-        return ResponseEntity.ok(laptops);
+    public ResponseEntity<byte[]> getAllLaptops(HttpServletRequest request) {
+        return responseCache.respond(request, "laptops", laptopService::getAllLaptops);
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<?> getLaptopsPage(@RequestParam(required = false) String brand,
+                                            @RequestParam(defaultValue = "false") boolean available,
+                                            @RequestParam(defaultValue = "price") String sort,
+                                            @RequestParam(defaultValue = "asc") String direction,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String cursor) {
+        try {
+            CursorPageDto<Laptop> page = laptopService.getLaptopPage(brand, available, sort, direction, limit, cursor);
+            return ResponseEntity.ok(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponseDto(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/filter")
+    public ResponseEntity<byte[]> filterLaptops(@ModelAttribute LaptopFilterDto filter, HttpServletRequest request) {
+        String query = request.getQueryString();
+        String key = "laptops/filter?" + (query == null ? "" : query);
+        return responseCache.respond(request, key, () -> laptopService.filterLaptops(filter));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Laptop> getLaptopById(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getLaptopById(@PathVariable Long id, HttpServletRequest request) {
         Optional<Laptop> laptop = laptopService.getLaptopById(id);
-        return laptop.map(ResponseEntity::ok)
-                     .orElse(ResponseEntity.notFound().build());
+        if (laptop.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return responseCache.respond(request, "laptops/" + id, laptop::get);
     }
     
     @GetMapping("/available")
-    public ResponseEntity<List<Laptop>> getAvailableLaptops() {
-        List<Laptop> laptops = laptopService.getAvailableLaptops();
-        return ResponseEntity.ok(laptops);
+    public ResponseEntity<byte[]> getAvailableLaptops(HttpServletRequest request) {
+        return responseCache.respond(request, "laptops/available", laptopService::getAvailableLaptops);
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Laptop>> searchLaptops(@RequestParam String q) {
-        List<Laptop> laptops = laptopService.searchLaptops(q);
-        return ResponseEntity.ok(laptops);
+    public ResponseEntity<byte[]> searchLaptops(@RequestParam String q,
+                                               @RequestParam(required = false) Integer limit,
+                                               HttpServletRequest request) {
+        String key = "laptops/search?q=" + q.trim().toLowerCase() + "&limit=" + limit;
+        return responseCache.respond(request, key, () -> laptopService.searchLaptops(q, limit));
     }
     
     @GetMapping("/brand/{brand}")
-    public ResponseEntity<List<Laptop>> getLaptopsByBrand(@PathVariable String brand) {
-        List<Laptop> laptops = laptopService.getLaptopsByBrand(brand);
-        return ResponseEntity.ok(laptops);
+    public ResponseEntity<byte[]> getLaptopsByBrand(@PathVariable String brand, HttpServletRequest request) {
+        return responseCache.respond(request, "laptops/brand/" + brand.toLowerCase(),
+                () -> laptopService.getLaptopsByBrand(brand));
     }
 }
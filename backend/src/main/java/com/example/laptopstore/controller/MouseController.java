@@ -1,12 +1,15 @@
 package com.example.laptopstore.controller;
 
+import com.example.laptopstore.dto.CursorPageDto;
+import com.example.laptopstore.dto.MouseFilterDto;
+import com.example.laptopstore.dto.MessageResponseDto;
 import com.example.laptopstore.entity.Mouse;
 import com.example.laptopstore.service.MouseService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -17,40 +20,67 @@ public class MouseController {
     @Autowired
     private MouseService mouseService;
     
+    @Autowired
+    private CatalogResponseCache responseCache;
+    
     @GetMapping
-    public ResponseEntity<List<Mouse>> getAllMice() {
-        List<Mouse> mice = mouseService.getAllMice();
-        return ResponseEntity.ok(mice);
+    public ResponseEntity<byte[]> getAllMice(HttpServletRequest request) {
+        return responseCache.respond(request, "mice", mouseService::getAllMice);
+    }
+    
+    @GetMapping("/page")
+    public ResponseEntity<?> getMicePage(@RequestParam(required = false) String brand,
+                                         @RequestParam(defaultValue = "false") boolean available,
+                                         @RequestParam(defaultValue = "price") String sort,
+                                         @RequestParam(defaultValue = "asc") String direction,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String cursor) {
+        try {
+            CursorPageDto<Mouse> page = mouseService.getMousePage(brand, available, sort, direction, limit, cursor);
+            return ResponseEntity.ok(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponseDto(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/filter")
+    public ResponseEntity<byte[]> filterMice(@ModelAttribute MouseFilterDto filter, HttpServletRequest request) {
+        String query = request.getQueryString();
+        String key = "mice/filter?" + (query == null ? "" : query);
+        return responseCache.respond(request, key, () -> mouseService.filterMice(filter));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Mouse> getMouseById(@PathVariable Long id) {
+    public ResponseEntity<byte[]> getMouseById(@PathVariable Long id, HttpServletRequest request) {
         Optional<Mouse> mouse = mouseService.getMouseById(id);
-        return mouse.map(ResponseEntity::ok)
-                    .orElse(ResponseEntity.notFound().build());
+        if (mouse.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return responseCache.respond(request, "mice/" + id, mouse::get);
     }
     
     @GetMapping("/available")
-    public ResponseEntity<List<Mouse>> getAvailableMice() {
-        List<Mouse> mice = mouseService.getAvailableMice();
-        return ResponseEntity.ok(mice);
+    public ResponseEntity<byte[]> getAvailableMice(HttpServletRequest request) {
+        return responseCache.respond(request, "mice/available", mouseService::getAvailableMice);
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Mouse>> searchMice(@RequestParam String q) {
-        List<Mouse> mice = mouseService.searchMice(q);
-        return ResponseEntity.ok(mice);
+    public ResponseEntity<byte[]> searchMice(@RequestParam String q,
+                                            @RequestParam(required = false) Integer limit,
+                                            HttpServletRequest request) {
+        String key = "mice/search?q=" + q.trim().toLowerCase() + "&limit=" + limit;
+        return responseCache.respond(request, key, () -> mouseService.searchMice(q, limit));
     }
     
     @GetMapping("/brand/{brand}")
-    public ResponseEntity<List<Mouse>> getMiceByBrand(@PathVariable String brand) {
-        List<Mouse> mice = mouseService.getMiceByBrand(brand);
-        return ResponseEntity.ok(mice);
+    public ResponseEntity<byte[]> getMiceByBrand(@PathVariable String brand, HttpServletRequest request) {
+        return responseCache.respond(request, "mice/brand/" + brand.toLowerCase(),
+                () -> mouseService.getMiceByBrand(brand));
     }
     
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<Mouse>> getMiceByType(@PathVariable String type) {
-        List<Mouse> mice = mouseService.getMiceByType(type);
-        return ResponseEntity.ok(mice);
+    public ResponseEntity<byte[]> getMiceByType(@PathVariable String type, HttpServletRequest request) {
+        return responseCache.respond(request, "mice/type/" + type.toLowerCase(),
+                () -> mouseService.getMiceByType(type));
     }
 }
@@ -1,19 +1,26 @@
 package com.example.laptopstore.controller;
 
+import com.example.laptopstore.dto.CursorPageDto;
 import com.example.laptopstore.dto.MessageResponseDto;
 import com.example.laptopstore.dto.OrderCreateDto;
+import com.example.laptopstore.dto.OrderIntakeDto;
 import com.example.laptopstore.dto.OrderResponseDto;
 import com.example.laptopstore.entity.Order;
+import com.example.laptopstore.exception.InsufficientStockException;
+import com.example.laptopstore.exception.ServiceUnavailableException;
 import com.example.laptopstore.security.CurrentUser;
+import com.example.laptopstore.service.OrderIntakeService;
+import com.example.laptopstore.service.OrderPlacementService;
 import com.example.laptopstore.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.net.URI;
 import java.util.Optional;
 
 @RestController
@@ -24,13 +31,51 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
     @PostMapping
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<?> createOrder(@Valid @RequestBody OrderCreateDto orderCreateDto, 
-                                       @CurrentUser Long userId) {
+                                       @CurrentUser Long userId,
+                                       @RequestHeader(value = "Prefer", required = false) String prefer,
+                                       @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        try {
+            if (idempotencyKey == null) {
+                return placeOrder(orderCreateDto, userId, prefer);
+            }
+            // A retried key is answered from the store without placing the order again
+            return idempotencyStore.execute(userId, idempotencyKey, orderCreateDto,
+                () -> placeOrder(orderCreateDto, userId, prefer));
+        } catch (InsufficientStockException e) {
+            // Raised through the store so it is not kept: the same order may go through after a restock
+            return ResponseEntity.badRequest().body(new MessageResponseDto(e.getMessage()));
+        }
+    }
+    
+    private ResponseEntity<?> placeOrder(OrderCreateDto orderCreateDto, Long userId, String prefer) {
         try {
-            OrderResponseDto order = orderService.createOrder(userId, orderCreateDto);
+            // Clients opt in to asynchronous placement with "Prefer: respond-async"
+            if (prefer != null && prefer.contains("respond-async") && orderIntakeService.isEnabled()) {
+                OrderIntakeDto intake = orderIntakeService.submit(userId, orderCreateDto);
+                return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/orders/intake/" + intake.getHandle()))
+                    .body(intake);
+            }
+            OrderResponseDto order = orderPlacementService.placeOrder(userId, orderCreateDto);
             return ResponseEntity.status(HttpStatus.CREATED).body(order);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponseDto(e.getMessage()));
+        } catch (InsufficientStockException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new MessageResponseDto(e.getMessage()));
         }
@@ -38,9 +83,24 @@ public class OrderController {
     
     @GetMapping
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<OrderResponseDto>> getUserOrders(@CurrentUser Long userId) {
-        List<OrderResponseDto> orders = orderService.getUserOrders(userId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getUserOrders(@CurrentUser Long userId,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) String cursor) {
+        try {
+            CursorPageDto<OrderResponseDto> orders = orderService.getUserOrders(userId, limit, cursor);
+            return ResponseEntity.ok(orders);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new MessageResponseDto(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/intake/{handle}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<OrderIntakeDto> getOrderIntake(@PathVariable String handle,
+                                                         @CurrentUser Long userId) {
+        return orderIntakeService.getStatus(handle, userId)
+                   .map(ResponseEntity::ok)
+                   .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/{orderId}")
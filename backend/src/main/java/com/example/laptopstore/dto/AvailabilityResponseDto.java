@@ -0,0 +1,36 @@
+package com.example.laptopstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of a sign-up availability check; a field is only present if it was asked for.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityResponseDto {
+    
+    private Boolean usernameAvailable;
+    private Boolean emailAvailable;
+    
+    public AvailabilityResponseDto() {}
+    
+    public AvailabilityResponseDto(Boolean usernameAvailable, Boolean emailAvailable) {
+        this.usernameAvailable = usernameAvailable;
+        this.emailAvailable = emailAvailable;
+    }
+    
+    public Boolean getUsernameAvailable() {
+        return usernameAvailable;
+    }
+    
+    public void setUsernameAvailable(Boolean usernameAvailable) {
+        this.usernameAvailable = usernameAvailable;
+    }
+    
+    public Boolean getEmailAvailable() {
+        return emailAvailable;
+    }
+    
+    public void setEmailAvailable(Boolean emailAvailable) {
+        this.emailAvailable = emailAvailable;
+    }
+}
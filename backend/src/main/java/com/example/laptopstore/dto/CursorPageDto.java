@@ -0,0 +1,34 @@
+package com.example.laptopstore.dto;
+
+import java.util.List;
+
+public class CursorPageDto<T> {
+    
+    private List<T> items;
+    
+    // Opaque cursor for the following page, null on the last page
+    private String next;
+    
+    public CursorPageDto() {}
+    
+    public CursorPageDto(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+    
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public String getNext() {
+        return next;
+    }
+    
+    public void setNext(String next) {
+        this.next = next;
+    }
+}
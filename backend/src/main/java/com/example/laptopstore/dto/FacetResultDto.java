@@ -0,0 +1,45 @@
+package com.example.laptopstore.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class FacetResultDto<T> {
+    
+    private List<T> items;
+    private int total;
+    
+    // Attribute -> value -> number of matching products with that value
+    private Map<String, Map<String, Integer>> facets;
+    
+    public FacetResultDto() {}
+    
+    public FacetResultDto(List<T> items, int total, Map<String, Map<String, Integer>> facets) {
+        this.items = items;
+        this.total = total;
+        this.facets = facets;
+    }
+    
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public int getTotal() {
+        return total;
+    }
+    
+    public void setTotal(int total) {
+        this.total = total;
+    }
+    
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+    
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+        this.facets = facets;
+    }
+}
@@ -10,6 +10,13 @@ public class JwtResponseDto {
     @JsonProperty("token_type")
     private String tokenType = "Bearer";
     
+    @JsonProperty("refresh_token")
+    private String refreshToken;
+    
+    // Access token lifetime in seconds
+    @JsonProperty("expires_in")
+    private long expiresIn;
+    
     private Long userId;
     private String username;
     
@@ -21,6 +28,14 @@ public class JwtResponseDto {
         this.username = username;
     }
     
+    public JwtResponseDto(String accessToken, String refreshToken, long expiresIn, Long userId, String username) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+        this.userId = userId;
+        this.username = username;
+    }
+    
     public String getAccessToken() {
         return accessToken;
     }
@@ -37,6 +52,22 @@ public class JwtResponseDto {
         this.tokenType = tokenType;
     }
     
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+    
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+    
     public Long getUserId() {
         return userId;
     }
@@ -0,0 +1,131 @@
+package com.example.laptopstore.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Query parameters of the laptop facet filter. Value lists match any of the given
+ * values; min/max bounds are inclusive and may be left open.
+ */
+public class LaptopFilterDto {
+    
+    private List<String> brand;
+    private List<String> graphics;
+    private Boolean available;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minRamGb;
+    private Integer maxRamGb;
+    private Integer minStorageGb;
+    private Integer maxStorageGb;
+    private Double minScreenSize;
+    private Double maxScreenSize;
+    private Integer offset;
+    private Integer limit;
+    
+    public LaptopFilterDto() {}
+    
+    public List<String> getBrand() {
+        return brand;
+    }
+    
+    public void setBrand(List<String> brand) {
+        this.brand = brand;
+    }
+    
+    public List<String> getGraphics() {
+        return graphics;
+    }
+    
+    public void setGraphics(List<String> graphics) {
+        this.graphics = graphics;
+    }
+    
+    public Boolean getAvailable() {
+        return available;
+    }
+    
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+    
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+    
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+    
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+    
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+    
+    public Integer getMinRamGb() {
+        return minRamGb;
+    }
+    
+    public void setMinRamGb(Integer minRamGb) {
+        this.minRamGb = minRamGb;
+    }
+    
+    public Integer getMaxRamGb() {
+        return maxRamGb;
+    }
+    
+    public void setMaxRamGb(Integer maxRamGb) {
+        this.maxRamGb = maxRamGb;
+    }
+    
+    public Integer getMinStorageGb() {
+        return minStorageGb;
+    }
+    
+    public void setMinStorageGb(Integer minStorageGb) {
+        this.minStorageGb = minStorageGb;
+    }
+    
+    public Integer getMaxStorageGb() {
+        return maxStorageGb;
+    }
+    
+    public void setMaxStorageGb(Integer maxStorageGb) {
+        this.maxStorageGb = maxStorageGb;
+    }
+    
+    public Double getMinScreenSize() {
+        return minScreenSize;
+    }
+    
+    public void setMinScreenSize(Double minScreenSize) {
+        this.minScreenSize = minScreenSize;
+    }
+    
+    public Double getMaxScreenSize() {
+        return maxScreenSize;
+    }
+    
+    public void setMaxScreenSize(Double maxScreenSize) {
+        this.maxScreenSize = maxScreenSize;
+    }
+    
+    public Integer getOffset() {
+        return offset;
+    }
+    
+    public void setOffset(Integer offset) {
+        this.offset = offset;
+    }
+    
+    public Integer getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.laptopstore.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Query parameters of the mouse facet filter. Value lists match any of the given
+ * values; min/max bounds are inclusive and may be left open.
+ */
+public class MouseFilterDto {
+    
+    private List<String> brand;
+    private List<String> mouseType;
+    private List<String> connectivity;
+    private Boolean rgbLighting;
+    private Boolean available;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Integer minDpi;
+    private Integer maxDpi;
+    private Integer minWeightGrams;
+    private Integer maxWeightGrams;
+    private Integer offset;
+    private Integer limit;
+    
+    public MouseFilterDto() {}
+    
+    public List<String> getBrand() {
+        return brand;
+    }
+    
+    public void setBrand(List<String> brand) {
+        this.brand = brand;
+    }
+    
+    public List<String> getMouseType() {
+        return mouseType;
+    }
+    
+    public void setMouseType(List<String> mouseType) {
+        this.mouseType = mouseType;
+    }
+    
+    public List<String> getConnectivity() {
+        return connectivity;
+    }
+    
+    public void setConnectivity(List<String> connectivity) {
+        this.connectivity = connectivity;
+    }
+    
+    public Boolean getRgbLighting() {
+        return rgbLighting;
+    }
+    
+    public void setRgbLighting(Boolean rgbLighting) {
+        this.rgbLighting = rgbLighting;
+    }
+    
+    public Boolean getAvailable() {
+        return available;
+    }
+    
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+    
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+    
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+    
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+    
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+    
+    public Integer getMinDpi() {
+        return minDpi;
+    }
+    
+    public void setMinDpi(Integer minDpi) {
+        this.minDpi = minDpi;
+    }
+    
+    public Integer getMaxDpi() {
+        return maxDpi;
+    }
+    
+    public void setMaxDpi(Integer maxDpi) {
+        this.maxDpi = maxDpi;
+    }
+    
+    public Integer getMinWeightGrams() {
+        return minWeightGrams;
+    }
+    
+    public void setMinWeightGrams(Integer minWeightGrams) {
+        this.minWeightGrams = minWeightGrams;
+    }
+    
+    public Integer getMaxWeightGrams() {
+        return maxWeightGrams;
+    }
+    
+    public void setMaxWeightGrams(Integer maxWeightGrams) {
+        this.maxWeightGrams = maxWeightGrams;
+    }
+    
+    public Integer getOffset() {
+        return offset;
+    }
+    
+    public void setOffset(Integer offset) {
+        this.offset = offset;
+    }
+    
+    public Integer getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
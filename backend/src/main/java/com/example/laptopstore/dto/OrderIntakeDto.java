@@ -0,0 +1,57 @@
+package com.example.laptopstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * State of an order accepted for asynchronous placement. {@code order} is present once
+ * the status is CREATED and {@code message} once it is FAILED.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderIntakeDto {
+    
+    private String handle;
+    private String status;
+    private OrderResponseDto order;
+    private String message;
+    
+    public OrderIntakeDto() {}
+    
+    public OrderIntakeDto(String handle, String status, OrderResponseDto order, String message) {
+        this.handle = handle;
+        this.status = status;
+        this.order = order;
+        this.message = message;
+    }
+    
+    public String getHandle() {
+        return handle;
+    }
+    
+    public void setHandle(String handle) {
+        this.handle = handle;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public OrderResponseDto getOrder() {
+        return order;
+    }
+    
+    public void setOrder(OrderResponseDto order) {
+        this.order = order;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
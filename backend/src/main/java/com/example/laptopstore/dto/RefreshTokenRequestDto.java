@@ -0,0 +1,25 @@
+package com.example.laptopstore.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+
+public class RefreshTokenRequestDto {
+    
+    @NotBlank(message = "Refresh token is required")
+    @JsonProperty("refresh_token")
+    private String refreshToken;
+    
+    public RefreshTokenRequestDto() {}
+    
+    public RefreshTokenRequestDto(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+    
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
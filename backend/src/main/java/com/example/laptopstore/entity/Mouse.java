@@ -1,5 +1,7 @@
 package com.example.laptopstore.entity;
 
+import com.example.laptopstore.service.CatalogIndexListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -9,7 +11,17 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "mice")
+@EntityListeners(CatalogIndexListener.class)
+@Table(name = "mice", indexes = {
+    @Index(name = "idx_mice_price", columnList = "price, id"),
+    @Index(name = "idx_mice_dpi", columnList = "dpi, id"),
+    @Index(name = "idx_mice_weight", columnList = "weight_grams, id"),
+    @Index(name = "idx_mice_created", columnList = "created_at, id"),
+    @Index(name = "idx_mice_brand_price", columnList = "brand_key, price, id"),
+    @Index(name = "idx_mice_brand_dpi", columnList = "brand_key, dpi, id"),
+    @Index(name = "idx_mice_brand_weight", columnList = "brand_key, weight_grams, id"),
+    @Index(name = "idx_mice_brand_created", columnList = "brand_key, created_at, id")
+})
 public class Mouse {
     
     @Id
@@ -19,6 +31,13 @@ public class Mouse {
     @NotBlank
     private String brand;
     
+    // Lower-cased brand kept by the database, so brand-filtered pages compare it
+    // directly and can walk the (brand_key, sort key, id) indexes
+    @Column(name = "brand_key", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(brand))")
+    @JsonIgnore
+    private String brandKey;
+    
     @NotBlank
     private String model;
     
@@ -57,6 +76,13 @@ public class Mouse {
     @JsonProperty("stock_quantity")
     private Integer stockQuantity;
     
+    // Bumped by every write, the bulk stock updates included, so a write based on a
+    // stale read fails with an optimistic lock conflict instead of overwriting stock
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
+    
     @Column(name = "created_at")
     @JsonProperty("created_at")
     private LocalDateTime createdAt;
@@ -173,6 +199,14 @@ public class Mouse {
         this.stockQuantity = stockQuantity;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -8,11 +8,15 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_user_created", columnList = "user_id, created_at, id")
+})
 public class Order {
     
+    // Sequence ids (allocated 50 at a time) let Hibernate batch the inserts; IDENTITY cannot
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
@@ -28,6 +32,10 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
     
+    // Set while the stock ledger holds this order's decrement and has not yet written it to the product rows
+    @Column(name = "stock_pending", nullable = false)
+    private boolean stockPending;
+    
     @Column(name = "created_at")
     @JsonProperty("created_at")
     private LocalDateTime createdAt;
@@ -89,6 +97,14 @@ public class Order {
         this.status = status;
     }
     
+    public boolean isStockPending() {
+        return stockPending;
+    }
+    
+    public void setStockPending(boolean stockPending) {
+        this.stockPending = stockPending;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -9,8 +9,10 @@ import java.math.BigDecimal;
 @Table(name = "order_items")
 public class OrderItem {
     
+    // Sequence ids (allocated 50 at a time) let Hibernate batch the inserts; IDENTITY cannot
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
@@ -0,0 +1,12 @@
+package com.example.laptopstore.exception;
+
+/**
+ * Thrown when an order asks for more of a product than is in stock. Unlike other
+ * order validation failures it can pass on a later attempt, once stock is restored.
+ */
+public class InsufficientStockException extends RuntimeException {
+    
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.laptopstore.exception;
+
+/**
+ * Thrown when a request is turned away because a bounded resource is saturated.
+ * Controllers answer it with 503 so clients back off and retry.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
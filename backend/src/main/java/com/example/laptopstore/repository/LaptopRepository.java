@@ -2,18 +2,26 @@ package com.example.laptopstore.repository;
 
 import com.example.laptopstore.entity.Laptop;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface LaptopRepository extends JpaRepository<Laptop, Long> {
+public interface LaptopRepository extends JpaRepository<Laptop, Long>, JpaSpecificationExecutor<Laptop> {
     List<Laptop> findByBrandIgnoreCase(String brand);
     List<Laptop> findByStockQuantityGreaterThan(Integer stock);
     
     @Query("SELECT l FROM Laptop l WHERE l.stockQuantity > 0")
     List<Laptop> findAvailableLaptops();
     
-    @Query("SELECT l FROM Laptop l WHERE LOWER(l.brand) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(l.model) LIKE LOWER(CONCAT('%', :search, '%'))")
-    List<Laptop> searchLaptops(String search);
+    @Modifying
+    @Query("UPDATE Laptop l SET l.stockQuantity = l.stockQuantity - :quantity, l.version = l.version + 1 WHERE l.id = :id AND l.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") Integer quantity);
+    
+    @Modifying
+    @Query("UPDATE Laptop l SET l.stockQuantity = l.stockQuantity + :quantity, l.version = l.version + 1 WHERE l.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") Integer quantity);
 }
@@ -2,12 +2,15 @@ package com.example.laptopstore.repository;
 
 import com.example.laptopstore.entity.Mouse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface MouseRepository extends JpaRepository<Mouse, Long> {
+public interface MouseRepository extends JpaRepository<Mouse, Long>, JpaSpecificationExecutor<Mouse> {
     List<Mouse> findByBrandIgnoreCase(String brand);
     List<Mouse> findByMouseTypeIgnoreCase(String mouseType);
     List<Mouse> findByStockQuantityGreaterThan(Integer stock);
@@ -15,6 +18,11 @@ public interface MouseRepository extends JpaRepository<Mouse, Long> {
     @Query("SELECT m FROM Mouse m WHERE m.stockQuantity > 0")
     List<Mouse> findAvailableMice();
     
-    @Query("SELECT m FROM Mouse m WHERE LOWER(m.brand) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(m.model) LIKE LOWER(CONCAT('%', :search, '%'))")
-    List<Mouse> searchMice(String search);
+    @Modifying
+    @Query("UPDATE Mouse m SET m.stockQuantity = m.stockQuantity - :quantity, m.version = m.version + 1 WHERE m.id = :id AND m.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") Integer quantity);
+    
+    @Modifying
+    @Query("UPDATE Mouse m SET m.stockQuantity = m.stockQuantity + :quantity, m.version = m.version + 1 WHERE m.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") Integer quantity);
 }
@@ -17,7 +17,7 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     
     List<OrderItem> findByMouseId(Long mouseId);
     
-    @Query("SELECT oi FROM OrderItem oi WHERE oi.orderId IN :orderIds")
+    @Query("SELECT oi FROM OrderItem oi WHERE oi.orderId IN :orderIds ORDER BY oi.id")
     List<OrderItem> findByOrderIds(@Param("orderIds") List<Long> orderIds);
     
     void deleteByOrderId(Long orderId);
@@ -1,11 +1,13 @@
 package com.example.laptopstore.repository;
 
 import com.example.laptopstore.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +16,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
     
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageByUserIdBefore(@Param("userId") Long userId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+    
     Optional<Order> findByIdAndUserId(Long id, Long userId);
     
     @Query("SELECT o FROM Order o WHERE o.userId = :userId AND o.status = 'PENDING'")
@@ -21,4 +34,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     @Query("SELECT COUNT(o) FROM Order o WHERE o.userId = :userId")
     Long countOrdersByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT o.id FROM Order o WHERE o.stockPending = true")
+    List<Long> findStockPendingOrderIds();
 }
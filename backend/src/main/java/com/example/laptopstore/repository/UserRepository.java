@@ -2,7 +2,9 @@ package com.example.laptopstore.repository;
 
 import com.example.laptopstore.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +13,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    
+    @Query("SELECT u.username FROM User u")
+    List<String> findAllUsernames();
+    
+    @Query("SELECT u.email FROM User u")
+    List<String> findAllEmails();
 }
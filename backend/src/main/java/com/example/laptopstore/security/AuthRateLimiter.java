@@ -0,0 +1,51 @@
+package com.example.laptopstore.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Throttles login and registration attempts per client IP and per username, so a
+ * credential-stuffing burst is refused before any password is hashed.
+ */
+@Component
+public class AuthRateLimiter {
+    
+    @Value("${auth.rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+    
+    @Value("${auth.rate-limit.ip.refill-per-minute:20}")
+    private double ipRefillPerMinute;
+    
+    @Value("${auth.rate-limit.username.capacity:5}")
+    private int usernameCapacity;
+    
+    @Value("${auth.rate-limit.username.refill-per-minute:5}")
+    private double usernameRefillPerMinute;
+    
+    @Value("${auth.rate-limit.max-keys:100000}")
+    private int maxKeys;
+    
+    private TokenBucketRateLimiter byIp;
+    private TokenBucketRateLimiter byUsername;
+    
+    @PostConstruct
+    void init() {
+        byIp = new TokenBucketRateLimiter(ipCapacity, ipRefillPerMinute / 60, maxKeys);
+        byUsername = new TokenBucketRateLimiter(usernameCapacity, usernameRefillPerMinute / 60, maxKeys);
+    }
+    
+    /**
+     * Returns 0 if the attempt may proceed, otherwise the number of seconds the
+     * client should wait before retrying.
+     */
+    public long checkAttempt(String clientIp, String username) {
+        long waitMs = byIp.tryAcquire(clientIp);
+        if (waitMs == 0 && username != null) {
+            waitMs = byUsername.tryAcquire(username.toLowerCase(Locale.ROOT));
+        }
+        return waitMs == 0 ? 0 : Math.max(1, (waitMs + 999) / 1000);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.laptopstore.security;
 
 import com.example.laptopstore.entity.User;
 import com.example.laptopstore.service.UserService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,7 +16,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 @Component
@@ -27,6 +31,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private TokenRevocationList revocationList;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                   HttpServletResponse response, 
@@ -34,30 +41,55 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         String token = getTokenFromRequest(request);
         
-        if (token != null && jwtTokenProvider.validateToken(token)) {
-            String username = jwtTokenProvider.getUsernameFromToken(token);
+        Optional<Claims> claims = jwtTokenProvider.parseToken(token);
+        Optional<UserPrincipal> principal = claims.flatMap(this::toPrincipal)
+            .filter(userPrincipal -> !revocationList.isRevoked(claims.get(), userPrincipal.getId()));
+        if (principal.isPresent()) {
+            UserPrincipal userPrincipal = principal.get();
+            
+            UsernamePasswordAuthenticationToken authentication = 
+                new UsernamePasswordAuthenticationToken(
+                    userPrincipal, 
+                    null, 
+                    userPrincipal.getAuthorities()
+                );
             
-            Optional<User> userOpt = userService.findByUsername(username);
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                
-                UserPrincipal userPrincipal = new UserPrincipal(user.getId(), user.getUsername());
-                
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(
-                        userPrincipal, 
-                        null, 
-                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-                    );
-                
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
         }
         
         filterChain.doFilter(request, response);
     }
     
+    /**
+     * Builds the principal from the token's id and roles claims. Only tokens issued
+     * before those claims existed fall back to looking the user up by name.
+     */
+    private Optional<UserPrincipal> toPrincipal(Claims claims) {
+        String username = claims.getSubject();
+        List<SimpleGrantedAuthority> authorities = authoritiesOf(claims);
+        
+        Object userId = claims.get(JwtTokenProvider.USER_ID_CLAIM);
+        if (userId instanceof Number) {
+            return Optional.of(new UserPrincipal(((Number) userId).longValue(), username, authorities));
+        }
+        
+        Optional<User> userOpt = userService.findByUsername(username);
+        return userOpt.map(user -> new UserPrincipal(user.getId(), user.getUsername(), authorities));
+    }
+    
+    private static List<SimpleGrantedAuthority> authoritiesOf(Claims claims) {
+        Object roles = claims.get(JwtTokenProvider.ROLES_CLAIM);
+        if (!(roles instanceof Collection<?>) || ((Collection<?>) roles).isEmpty()) {
+            return Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+        }
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        for (Object role : (Collection<?>) roles) {
+            authorities.add(new SimpleGrantedAuthority(String.valueOf(role)));
+        }
+        return authorities;
+    }
+    
     private String getTokenFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
@@ -1,66 +1,157 @@
 package com.example.laptopstore.security;
 
+import com.example.laptopstore.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JWT Token Provider using modern JJWT 0.12.x API
- * 
+ *
  * This component handles JWT token generation, parsing, and validation.
  * Updated to use the latest JJWT API methods replacing deprecated ones:
  * - setSigningKey() → verifyWith()
  * - parseClaimsJws() → parseSignedClaims()
  * - setSubject(), setIssuedAt(), setExpiration() → subject(), issuedAt(), expiration()
+ *
+ * The signing key and parser are built once. Tokens that already passed
+ * verification are remembered by their SHA-256 hash until they expire, so a client
+ * sending the same bearer token on every request pays for one signature check and
+ * one JSON parse instead of one per request.
  */
 @Component
 public class JwtTokenProvider {
     
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+    
     @Value("${jwt.secret:mySecretKey}")
     private String jwtSecret;
     
-    @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
+    @Value("${jwt.expiration:900000}") // 15 minutes in milliseconds
     private long jwtExpirationMs;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int maxCachedTokens;
+    
+    private SecretKey signingKey;
+    private JwtParser parser;
+    
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
     
-    public String generateToken(String username) {
+    /**
+     * Issues a short-lived access token carrying the user's id and roles, so
+     * authenticated requests can build their principal from the token alone, and a
+     * unique token id so the token can be revoked before it expires.
+     */
+    public String generateToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
         
         return Jwts.builder()
-                .subject(username)
+                .id(UUID.randomUUID().toString())
+                .subject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLES_CLAIM, List.of("ROLE_USER"))
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public long getExpirationMs() {
+        return jwtExpirationMs;
+    }
+    
+    /**
+     * Verifies the token and returns its claims, or empty if the token is
+     * malformed, badly signed or expired.
+     */
+    public Optional<Claims> parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        long now = System.currentTimeMillis();
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                return Optional.of(cached.claims);
+            }
+            verifiedTokens.remove(key, cached);
+            return Optional.empty();
+        }
+        
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
         
-        return claims.getSubject();
+        if (claims.getExpiration() != null) {
+            remember(key, new VerifiedToken(claims, claims.getExpiration().getTime()), now);
+        }
+        return Optional.of(claims);
+    }
+    
+    public String getUsernameFromToken(String token) {
+        return parseToken(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"));
     }
     
     public boolean validateToken(String token) {
+        return parseToken(token).isPresent();
+    }
+    
+    private void remember(String key, VerifiedToken token, long now) {
+        if (verifiedTokens.size() >= maxCachedTokens) {
+            verifiedTokens.values().removeIf(cached -> cached.expiresAt <= now);
+            if (verifiedTokens.size() >= maxCachedTokens) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(key, token);
+    }
+    
+    private static String hash(String token) {
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static final class VerifiedToken {
+        private final Claims claims;
+        private final long expiresAt;
+        
+        private VerifiedToken(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
         }
     }
 }
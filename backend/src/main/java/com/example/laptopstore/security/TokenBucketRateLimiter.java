@@ -0,0 +1,107 @@
+package com.example.laptopstore.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token-bucket rate limiter keyed by an arbitrary string (client IP, username).
+ *
+ * Each key owns a bucket of {@code capacity} tokens refilled continuously at
+ * {@code refillPerSecond}; a request takes one token or is refused. Refill is
+ * computed lazily from the time of the last request, and a bucket's state is a
+ * single immutable value swapped with compare-and-set, so acquiring never locks.
+ *
+ * Buckets live in a fixed number of shards, each capped at its share of
+ * {@code maxKeys}. A full shard first drops buckets that have refilled completely,
+ * which is lossless since a full bucket behaves exactly like a missing one, and only
+ * then evicts the least recently used buckets.
+ */
+public class TokenBucketRateLimiter {
+    
+    private static final int SHARDS = 16;
+    
+    private final double capacity;
+    private final double tokensPerNano;
+    private final int maxKeysPerShard;
+    private final Map<String, Bucket>[] shards;
+    
+    @SuppressWarnings("unchecked")
+    public TokenBucketRateLimiter(int capacity, double refillPerSecond, int maxKeys) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.maxKeysPerShard = Math.max(1, maxKeys / SHARDS);
+        this.shards = new Map[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+    }
+    
+    /**
+     * Takes a token for the key. Returns 0 if the request is allowed, otherwise
+     * the number of milliseconds until a token becomes available.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        Map<String, Bucket> shard = shards[(key.hashCode() & 0x7fffffff) % SHARDS];
+        Bucket bucket = shard.get(key);
+        if (bucket == null) {
+            if (shard.size() >= maxKeysPerShard) {
+                evict(shard, now);
+            }
+            bucket = shard.computeIfAbsent(key, k -> new Bucket(capacity, now));
+        }
+        
+        while (true) {
+            State current = bucket.state.get();
+            double tokens = Math.min(capacity, current.tokens + (now - current.updatedAt) * tokensPerNano);
+            if (tokens < 1) {
+                long waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            }
+            if (bucket.state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.updatedAt)))) {
+                return 0;
+            }
+        }
+    }
+    
+    private void evict(Map<String, Bucket> shard, long now) {
+        shard.values().removeIf(bucket -> isFull(bucket.state.get(), now));
+        
+        // Still full of active buckets: drop the least recently used quarter
+        int excess = shard.size() - (maxKeysPerShard * 3 / 4);
+        if (excess <= 0) {
+            return;
+        }
+        shard.entrySet().stream()
+            .map(entry -> Map.entry(entry.getKey(), entry.getValue().state.get().updatedAt))
+            .sorted(Map.Entry.comparingByValue())
+            .limit(excess)
+            .map(Map.Entry::getKey)
+            .toList()
+            .forEach(shard::remove);
+    }
+    
+    private boolean isFull(State state, long now) {
+        return state.tokens + (now - state.updatedAt) * tokensPerNano >= capacity;
+    }
+    
+    private static final class Bucket {
+        private final AtomicReference<State> state;
+        
+        private Bucket(double tokens, long now) {
+            this.state = new AtomicReference<>(new State(tokens, now));
+        }
+    }
+    
+    private static final class State {
+        private final double tokens;
+        private final long updatedAt;
+        
+        private State(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
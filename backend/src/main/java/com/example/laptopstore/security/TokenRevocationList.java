@@ -0,0 +1,93 @@
+package com.example.laptopstore.security;
+
+import com.example.laptopstore.service.BloomFilter;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory list of revoked access tokens, checked on every authenticated request
+ * without touching the database.
+ *
+ * Revoked token ids are grouped into time buckets by the token's expiry, one bucket
+ * per access-token lifetime. A lookup goes straight to the token's bucket, where a
+ * Bloom filter rules out almost every live token; only a filter hit is confirmed
+ * against the bucket's exact id set, so a false positive never rejects a valid
+ * token. Once every token a bucket could hold has expired, the whole bucket is
+ * dropped, which keeps memory proportional to the revocations of one token lifetime.
+ *
+ * Revoking all of a user's tokens records a cut-off time instead: tokens issued
+ * before it are rejected, and the entry is dropped after one token lifetime.
+ *
+ * The list lives in this process only; with several instances behind a load
+ * balancer each would need to receive the revocations.
+ */
+@Component
+public class TokenRevocationList {
+    
+    @Value("${jwt.expiration:900000}")
+    private long bucketWidthMs;
+    
+    @Value("${jwt.revocation.expected-per-window:10000}")
+    private long expectedPerBucket;
+    
+    private final Map<Long, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<Long, Long> userCutoffs = new ConcurrentHashMap<>();
+    
+    public void revoke(String tokenId, long expiresAtMs) {
+        long now = System.currentTimeMillis();
+        prune(now);
+        if (tokenId == null || expiresAtMs <= now) {
+            return;
+        }
+        Bucket bucket = buckets.computeIfAbsent(expiresAtMs / bucketWidthMs, index -> new Bucket(expectedPerBucket));
+        bucket.ids.add(tokenId);
+        bucket.filter.add(tokenId);
+    }
+    
+    /**
+     * Rejects every token issued to the user up to now, e.g. after a refresh token
+     * was replayed.
+     */
+    public void revokeAllForUser(Long userId) {
+        long now = System.currentTimeMillis();
+        prune(now);
+        // JWT issue times have second precision; a token issued within this second survives
+        userCutoffs.put(userId, now / 1000 * 1000);
+    }
+    
+    public boolean isRevoked(Claims claims, Long userId) {
+        if (userId != null && claims.getIssuedAt() != null) {
+            Long cutoff = userCutoffs.get(userId);
+            if (cutoff != null && claims.getIssuedAt().getTime() < cutoff) {
+                return true;
+            }
+        }
+        
+        String tokenId = claims.getId();
+        if (tokenId == null || claims.getExpiration() == null) {
+            return false;
+        }
+        Bucket bucket = buckets.get(claims.getExpiration().getTime() / bucketWidthMs);
+        return bucket != null && bucket.filter.mightContain(tokenId) && bucket.ids.contains(tokenId);
+    }
+    
+    private void prune(long now) {
+        long currentBucket = now / bucketWidthMs;
+        buckets.keySet().removeIf(index -> index < currentBucket);
+        userCutoffs.values().removeIf(cutoff -> cutoff < now - bucketWidthMs - 1000);
+    }
+    
+    private static final class Bucket {
+        private final BloomFilter filter;
+        private final Set<String> ids = ConcurrentHashMap.newKeySet();
+        
+        private Bucket(long expectedIds) {
+            this.filter = new BloomFilter(expectedIds, 0.01);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.laptopstore.service;
+
+import com.example.laptopstore.config.ReadWriteRoutingDataSource;
+import com.example.laptopstore.entity.Laptop;
+import com.example.laptopstore.entity.Mouse;
+import com.example.laptopstore.repository.LaptopRepository;
+import com.example.laptopstore.repository.MouseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link CatalogSnapshot}. Catalog reads are served from it
+ * without touching the database; once a transaction that changed products commits,
+ * its product ids are queued and a scheduled task reloads only the affected rows and
+ * swaps in a new snapshot version.
+ */
+@Component
+public class CatalogCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+    
+    @Autowired
+    private LaptopRepository laptopRepository;
+    
+    @Autowired
+    private MouseRepository mouseRepository;
+    
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    
+    // Changes from committed transactions not yet reloaded into the snapshot
+    private final Queue<CatalogChangedEvent> pending = new ConcurrentLinkedQueue<>();
+    
+    // A lock rather than synchronized: a virtual thread blocked on JDBC inside a
+    // synchronized block would pin its carrier thread
+    private final ReentrantLock updateLock = new ReentrantLock();
+    
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot.get();
+        return current != null ? current : reload();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+    
+    public CatalogSnapshot reload() {
+        updateLock.lock();
+        try {
+            CatalogSnapshot previous = snapshot.get();
+            long version = previous == null ? 1 : previous.getVersion() + 1;
+            CatalogSnapshot loaded = ReadWriteRoutingDataSource.onPrimary(() ->
+                new CatalogSnapshot(version, laptopRepository.findAll(), mouseRepository.findAll()));
+            snapshot.set(loaded);
+            logger.debug("Loaded catalog snapshot version {}", version);
+            return loaded;
+        } finally {
+            updateLock.unlock();
+        }
+    }
+    
+    /**
+     * Only records which products changed. This runs on the committing thread while
+     * it still holds its connection, so reloading here would need a second one and
+     * stall the pool under concurrent orders; {@link #applyPendingChanges()} does it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        pending.add(event);
+    }
+    
+    /**
+     * Reloads the products changed since the last run, coalesced across all commits
+     * in between, and swaps in the next snapshot version. When every change was a
+     * stock move, the next version keeps what was derived from the previous one.
+     */
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval-ms:100}")
+    public void applyPendingChanges() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        updateLock.lock();
+        try {
+            Set<Long> laptopIds = new HashSet<>();
+            Set<Long> mouseIds = new HashSet<>();
+            boolean stockOnly = true;
+            for (CatalogChangedEvent event = pending.poll(); event != null; event = pending.poll()) {
+                laptopIds.addAll(event.getLaptopIds());
+                mouseIds.addAll(event.getMouseIds());
+                stockOnly &= event.isStockOnly();
+            }
+            CatalogSnapshot previous = snapshot.get();
+            if (previous == null) {
+                reload();
+                return;
+            }
+            
+            // Read from the primary: a replica may not have the commits that raised the events yet
+            List<Laptop> laptops = laptopIds.isEmpty() ? List.of()
+                : ReadWriteRoutingDataSource.onPrimary(() -> laptopRepository.findAllById(laptopIds));
+            List<Mouse> mice = mouseIds.isEmpty() ? List.of()
+                : ReadWriteRoutingDataSource.onPrimary(() -> mouseRepository.findAllById(mouseIds));
+            CatalogSnapshot next = previous.withChanges(laptopIds, laptops, mouseIds, mice, stockOnly);
+            snapshot.set(next);
+            logger.debug("Catalog snapshot version {} after changes to {} laptops and {} mice",
+                    next.getVersion(), laptops.size(), mice.size());
+        } finally {
+            updateLock.unlock();
+        }
+    }
+}
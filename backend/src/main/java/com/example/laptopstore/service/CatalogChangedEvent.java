@@ -0,0 +1,47 @@
+package com.example.laptopstore.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published inside the writing transaction whenever laptops or mice change
+ * (stock moves or product writes); consumers react once it commits. Events from
+ * stock moves are marked stock-only, so structures that do not depend on stock can
+ * be kept.
+ */
+public class CatalogChangedEvent {
+    
+    private final Set<Long> laptopIds;
+    private final Set<Long> mouseIds;
+    private final boolean stockOnly;
+    
+    public CatalogChangedEvent(Collection<Long> laptopIds, Collection<Long> mouseIds, boolean stockOnly) {
+        this.laptopIds = Set.copyOf(laptopIds);
+        this.mouseIds = Set.copyOf(mouseIds);
+        this.stockOnly = stockOnly;
+    }
+    
+    public static CatalogChangedEvent laptops(Collection<Long> laptopIds) {
+        return new CatalogChangedEvent(laptopIds, Set.of(), false);
+    }
+    
+    public static CatalogChangedEvent mice(Collection<Long> mouseIds) {
+        return new CatalogChangedEvent(Set.of(), mouseIds, false);
+    }
+    
+    public static CatalogChangedEvent stock(Collection<Long> laptopIds, Collection<Long> mouseIds) {
+        return new CatalogChangedEvent(laptopIds, mouseIds, true);
+    }
+    
+    public Set<Long> getLaptopIds() {
+        return laptopIds;
+    }
+    
+    public Set<Long> getMouseIds() {
+        return mouseIds;
+    }
+    
+    public boolean isStockOnly() {
+        return stockOnly;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.laptopstore.service;
+
+import com.example.laptopstore.entity.Laptop;
+import com.example.laptopstore.entity.Mouse;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * JPA entity listener keeping the catalog search indexes in step with product writes
+ * made through the entity manager, and announcing them so the catalog snapshot is
+ * refreshed. The callbacks fire at flush time, so index changes are deferred until
+ * the transaction commits; a rollback leaves the index untouched. Bulk stock updates
+ * bypass it and publish their own change events.
+ */
+@Component
+public class CatalogIndexListener {
+    
+    @Autowired
+    @Lazy
+    private LaptopService laptopService;
+    
+    @Autowired
+    @Lazy
+    private MouseService mouseService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object product) {
+        if (product instanceof Laptop laptop) {
+            afterCommit(() -> laptopService.indexLaptop(laptop));
+            eventPublisher.publishEvent(CatalogChangedEvent.laptops(List.of(laptop.getId())));
+        } else if (product instanceof Mouse mouse) {
+            afterCommit(() -> mouseService.indexMouse(mouse));
+            eventPublisher.publishEvent(CatalogChangedEvent.mice(List.of(mouse.getId())));
+        }
+    }
+    
+    @PostRemove
+    public void onRemove(Object product) {
+        if (product instanceof Laptop laptop) {
+            Long laptopId = laptop.getId();
+            afterCommit(() -> laptopService.removeFromSearchIndex(laptopId));
+            eventPublisher.publishEvent(CatalogChangedEvent.laptops(List.of(laptopId)));
+        } else if (product instanceof Mouse mouse) {
+            Long mouseId = mouse.getId();
+            afterCommit(() -> mouseService.removeFromSearchIndex(mouseId));
+            eventPublisher.publishEvent(CatalogChangedEvent.mice(List.of(mouseId)));
+        }
+    }
+    
+    // Outside a transaction the write is already durable, so index straight away
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
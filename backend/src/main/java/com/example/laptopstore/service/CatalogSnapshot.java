@@ -0,0 +1,200 @@
+package com.example.laptopstore.service;
+
+import com.example.laptopstore.entity.Laptop;
+import com.example.laptopstore.entity.Mouse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Immutable, versioned view of the whole catalog with the list variants the
+ * endpoints serve (all, in stock, per brand, per mouse type) computed up front.
+ * A new snapshot is built for every change and swapped in as a whole, so readers
+ * never see a half-applied update.
+ */
+public final class CatalogSnapshot {
+    
+    private final long version;
+    
+    private final Map<Long, Laptop> laptopsById;
+    private final List<Laptop> laptops;
+    private final List<Laptop> availableLaptops;
+    private final Map<String, List<Laptop>> laptopsByBrand;
+    
+    private final Map<Long, Mouse> miceById;
+    private final List<Mouse> mice;
+    private final List<Mouse> availableMice;
+    private final Map<String, List<Mouse>> miceByBrand;
+    private final Map<String, List<Mouse>> miceByType;
+    
+    // Structures derived lazily from this version (e.g. facet indexes); dropped with the snapshot
+    private final Map<String, Object> derived = new ConcurrentHashMap<>();
+    
+    // After a stock-only change: the previous version's derived structures, each taken
+    // once to be patched at the positions whose stock moved instead of rebuilt
+    private final Map<String, Object> inherited = new ConcurrentHashMap<>();
+    private int[] restockedLaptopPositions = new int[0];
+    private int[] restockedMousePositions = new int[0];
+    
+    public CatalogSnapshot(long version, Collection<Laptop> laptops, Collection<Mouse> mice) {
+        this.version = version;
+        
+        Map<Long, Laptop> laptopMap = new TreeMap<>();
+        laptops.forEach(laptop -> laptopMap.put(laptop.getId(), laptop));
+        this.laptopsById = Collections.unmodifiableMap(laptopMap);
+        this.laptops = List.copyOf(laptopMap.values());
+        this.availableLaptops = this.laptops.stream().filter(laptop -> laptop.getStockQuantity() > 0).toList();
+        this.laptopsByBrand = groupBy(this.laptops, Laptop::getBrand);
+        
+        Map<Long, Mouse> mouseMap = new TreeMap<>();
+        mice.forEach(mouse -> mouseMap.put(mouse.getId(), mouse));
+        this.miceById = Collections.unmodifiableMap(mouseMap);
+        this.mice = List.copyOf(mouseMap.values());
+        this.availableMice = this.mice.stream().filter(mouse -> mouse.getStockQuantity() > 0).toList();
+        this.miceByBrand = groupBy(this.mice, Mouse::getBrand);
+        this.miceByType = groupBy(this.mice, Mouse::getMouseType);
+    }
+    
+    /**
+     * Builds the next version with the given rows replaced. Ids listed as changed
+     * but missing from the reloaded rows were deleted. With {@code stockOnly} the
+     * rows differ only in stock, so derived structures are handed on to be patched.
+     */
+    public CatalogSnapshot withChanges(Set<Long> changedLaptopIds, Collection<Laptop> reloadedLaptops,
+                                       Set<Long> changedMouseIds, Collection<Mouse> reloadedMice,
+                                       boolean stockOnly) {
+        Map<Long, Laptop> nextLaptops = new HashMap<>(laptopsById);
+        changedLaptopIds.forEach(nextLaptops::remove);
+        reloadedLaptops.forEach(laptop -> nextLaptops.put(laptop.getId(), laptop));
+        
+        Map<Long, Mouse> nextMice = new HashMap<>(miceById);
+        changedMouseIds.forEach(nextMice::remove);
+        reloadedMice.forEach(mouse -> nextMice.put(mouse.getId(), mouse));
+        
+        CatalogSnapshot next = new CatalogSnapshot(version + 1, nextLaptops.values(), nextMice.values());
+        // Positions are only comparable while the same products are present
+        boolean samePositions = reloadedLaptops.size() == changedLaptopIds.size()
+            && reloadedMice.size() == changedMouseIds.size()
+            && laptopsById.keySet().containsAll(changedLaptopIds)
+            && miceById.keySet().containsAll(changedMouseIds);
+        if (stockOnly && samePositions) {
+            next.inherited.putAll(derived);
+            next.restockedLaptopPositions = positionsOf(next.laptops, changedLaptopIds, Laptop::getId);
+            next.restockedMousePositions = positionsOf(next.mice, changedMouseIds, Mouse::getId);
+        }
+        return next;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public List<Laptop> getLaptops() {
+        return laptops;
+    }
+    
+    public List<Laptop> getAvailableLaptops() {
+        return availableLaptops;
+    }
+    
+    public Laptop getLaptop(Long id) {
+        return laptopsById.get(id);
+    }
+    
+    public List<Laptop> getLaptopsByBrand(String brand) {
+        return laptopsByBrand.getOrDefault(key(brand), List.of());
+    }
+    
+    public List<Mouse> getMice() {
+        return mice;
+    }
+    
+    public List<Mouse> getAvailableMice() {
+        return availableMice;
+    }
+    
+    public Mouse getMouse(Long id) {
+        return miceById.get(id);
+    }
+    
+    public List<Mouse> getMiceByBrand(String brand) {
+        return miceByBrand.getOrDefault(key(brand), List.of());
+    }
+    
+    public List<Mouse> getMiceByType(String mouseType) {
+        return miceByType.getOrDefault(key(mouseType), List.of());
+    }
+    
+    /**
+     * Positions in {@link #getLaptops()} whose stock changed since the previous version,
+     * when that change was stock-only.
+     */
+    public int[] getRestockedLaptopPositions() {
+        return restockedLaptopPositions;
+    }
+    
+    public int[] getRestockedMousePositions() {
+        return restockedMousePositions;
+    }
+    
+    /**
+     * Returns a structure built from this snapshot, building it on first use. The
+     * result lives as long as the snapshot, so it never outlives the data it was
+     * built from. If the previous version built one and only stock changed since,
+     * {@code restock} patches that one instead of building from scratch.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V derived(String key, Function<CatalogSnapshot, V> builder, BiFunction<V, CatalogSnapshot, V> restock) {
+        return (V) derived.computeIfAbsent(key, k -> {
+            V previous = (V) inherited.remove(k);
+            return previous != null ? restock.apply(previous, this) : builder.apply(this);
+        });
+    }
+    
+    // The lists are ordered by id, so each position is a binary search away
+    private static <T> int[] positionsOf(List<T> products, Set<Long> ids, Function<T, Long> idOf) {
+        int[] positions = new int[ids.size()];
+        int count = 0;
+        for (Long id : ids) {
+            int low = 0;
+            int high = products.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = idOf.apply(products.get(mid)).compareTo(id);
+                if (cmp == 0) {
+                    positions[count++] = mid;
+                    break;
+                } else if (cmp < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+    
+    private static <T> Map<String, List<T>> groupBy(List<T> products, Function<T, String> attribute) {
+        Map<String, List<T>> groups = new HashMap<>();
+        for (T product : products) {
+            groups.computeIfAbsent(key(attribute.apply(product)), k -> new ArrayList<>()).add(product);
+        }
+        groups.replaceAll((k, v) -> List.copyOf(v));
+        return Collections.unmodifiableMap(groups);
+    }
+    
+    private static String key(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
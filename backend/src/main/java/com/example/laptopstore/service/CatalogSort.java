@@ -0,0 +1,75 @@
+package com.example.laptopstore.service;
+
+import com.example.laptopstore.dto.CursorPageDto;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A column a catalog list can be sorted by, together with what is needed to
+ * keyset-paginate on it: rows are ordered by (column, id) and a page starts
+ * strictly after the (value, id) pair carried by the previous page's cursor.
+ */
+public class CatalogSort<T> {
+    
+    private final String attribute;
+    private final Function<T, ?> extractor;
+    private final Function<String, ? extends Comparable<?>> parser;
+    
+    public CatalogSort(String attribute, Function<T, ?> extractor, Function<String, ? extends Comparable<?>> parser) {
+        this.attribute = attribute;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+    
+    public Sort toSort(Sort.Direction direction) {
+        return Sort.by(direction, attribute).and(Sort.by(direction, "id"));
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Specification<T> after(PageCursor cursor, Sort.Direction direction) {
+        Comparable value;
+        try {
+            value = parser.apply(cursor.getValue());
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid page cursor");
+        }
+        return (root, query, cb) -> {
+            Path<Comparable> column = root.get(attribute);
+            Path<Long> id = root.get("id");
+            if (direction.isAscending()) {
+                return cb.or(cb.greaterThan(column, value),
+                        cb.and(cb.equal(column, value), cb.greaterThan(id, cursor.getId())));
+            }
+            return cb.or(cb.lessThan(column, value),
+                    cb.and(cb.equal(column, value), cb.lessThan(id, cursor.getId())));
+        };
+    }
+    
+    /**
+     * Turns the rows of a query limited to {@code pageSize + 1} into a page, using
+     * the extra row only to decide whether a next cursor is needed.
+     */
+    public CursorPageDto<T> toPage(List<T> rows, int pageSize, Function<T, Long> idOf) {
+        if (rows.size() <= pageSize) {
+            return new CursorPageDto<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        T last = items.get(pageSize - 1);
+        String next = new PageCursor(String.valueOf(extractor.apply(last)), idOf.apply(last)).encode();
+        return new CursorPageDto<>(items, next);
+    }
+    
+    public static Sort.Direction parseDirection(String direction) {
+        if ("asc".equalsIgnoreCase(direction)) {
+            return Sort.Direction.ASC;
+        }
+        if ("desc".equalsIgnoreCase(direction)) {
+            return Sort.Direction.DESC;
+        }
+        throw new RuntimeException("Unsupported sort direction: " + direction);
+    }
+}
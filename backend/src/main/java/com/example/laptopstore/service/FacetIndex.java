@@ -0,0 +1,310 @@
+package com.example.laptopstore.service;
+
+import com.example.laptopstore.dto.FacetResultDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Bitmap index over one catalog snapshot for faceted filtering.
+ *
+ * Products are numbered by their position in the snapshot list. Every value of a
+ * categorical attribute (brand, graphics, ...) gets a bitmap of the positions
+ * holding it. Numeric attributes keep positions sorted by value, plus prebuilt
+ * bitmaps of every {@value #RANGE_BLOCK}-th prefix of that order, so a range is two
+ * binary searches and a bitmap difference with at most a block of single bits on
+ * each side. A query ANDs one bitmap per filtered attribute; each facet count is the
+ * size of the intersection of a value's bitmap with all the other attributes'
+ * filters, so selecting a brand still shows how many results every other brand
+ * would give.
+ *
+ * Attributes registered with {@link #stockCategory} follow stock; after a stock-only
+ * change {@link #restock} patches just those at the moved positions and shares
+ * everything else with the previous index.
+ */
+public class FacetIndex<T> {
+    
+    private static final int RANGE_BLOCK = 1024;
+    
+    private final List<T> products;
+    private final BitSet all;
+    private final Map<String, Category<T>> categories = new LinkedHashMap<>();
+    private final Map<String, Range> ranges = new HashMap<>();
+    
+    public FacetIndex(List<T> products) {
+        this.products = products;
+        this.all = new BitSet(products.size());
+        this.all.set(0, products.size());
+    }
+    
+    private FacetIndex(List<T> products, BitSet all, Map<String, Range> ranges) {
+        this.products = products;
+        this.all = all;
+        this.ranges.putAll(ranges);
+    }
+    
+    public FacetIndex<T> category(String name, Function<T, ?> attribute) {
+        categories.put(name, Category.build(products, attribute, null));
+        return this;
+    }
+    
+    /**
+     * A categorical attribute derived from stock, such as availability.
+     */
+    public FacetIndex<T> stockCategory(String name, Function<T, ?> attribute) {
+        categories.put(name, Category.build(products, attribute, attribute));
+        return this;
+    }
+    
+    /**
+     * Index over {@code products}, which match this index's products position by
+     * position except for stock at {@code changedPositions}.
+     */
+    public FacetIndex<T> restock(List<T> products, int[] changedPositions) {
+        FacetIndex<T> next = new FacetIndex<>(products, all, ranges);
+        categories.forEach((name, category) ->
+            next.categories.put(name, category.stockAttribute == null ? category
+                : category.restock(products, changedPositions)));
+        return next;
+    }
+    
+    public FacetIndex<T> range(String name, Function<T, ? extends Number> attribute) {
+        Integer[] order = new Integer[products.size()];
+        double[] values = new double[products.size()];
+        for (int position = 0; position < products.size(); position++) {
+            order[position] = position;
+            Number value = attribute.apply(products.get(position));
+            values[position] = value == null ? Double.NaN : value.doubleValue();
+        }
+        Arrays.sort(order, Comparator.comparingDouble(position -> values[position]));
+        
+        Range range = new Range(products.size());
+        for (int i = 0; i < order.length; i++) {
+            range.positions[i] = order[i];
+            range.sortedValues[i] = values[order[i]];
+            // Missing values sort last as NaN and never match a range
+            if (!Double.isNaN(range.sortedValues[i])) {
+                range.valid = i + 1;
+            }
+        }
+        range.buildPrefixes();
+        ranges.put(name, range);
+        return this;
+    }
+    
+    public FacetResultDto<T> query(Query query, int offset, int limit) {
+        BitSet rangeMatches = (BitSet) all.clone();
+        query.ranges.forEach((name, bounds) -> {
+            Range range = ranges.get(name);
+            if (range != null) {
+                rangeMatches.and(range.between(bounds[0], bounds[1]));
+            }
+        });
+        
+        Map<String, BitSet> categoryMatches = new HashMap<>();
+        query.categories.forEach((name, values) -> {
+            Category<T> category = categories.get(name);
+            if (category != null && values != null && !values.isEmpty()) {
+                categoryMatches.put(name, category.anyOf(values, products.size()));
+            }
+        });
+        
+        BitSet matches = (BitSet) rangeMatches.clone();
+        categoryMatches.values().forEach(matches::and);
+        
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        categories.forEach((name, category) -> {
+            // Counts for an attribute ignore that attribute's own selection
+            BitSet base = (BitSet) rangeMatches.clone();
+            categoryMatches.forEach((other, bitmap) -> {
+                if (!other.equals(name)) {
+                    base.and(bitmap);
+                }
+            });
+            Map<String, Integer> counts = new TreeMap<>();
+            category.bitmaps.forEach((key, bitmap) -> {
+                BitSet intersection = (BitSet) bitmap.clone();
+                intersection.and(base);
+                int count = intersection.cardinality();
+                if (count > 0) {
+                    counts.put(category.labels.get(key), count);
+                }
+            });
+            facets.put(name, counts);
+        });
+        
+        List<T> items = new ArrayList<>();
+        int skipped = 0;
+        for (int position = matches.nextSetBit(0); position >= 0 && items.size() < limit; position = matches.nextSetBit(position + 1)) {
+            if (skipped++ >= offset) {
+                items.add(products.get(position));
+            }
+        }
+        
+        return new FacetResultDto<>(items, matches.cardinality(), facets);
+    }
+    
+    /**
+     * Filter selection: any-of value sets for categorical attributes and inclusive,
+     * optionally open-ended bounds for numeric ones.
+     */
+    public static class Query {
+        
+        private final Map<String, Collection<String>> categories = new HashMap<>();
+        private final Map<String, Double[]> ranges = new HashMap<>();
+        
+        public Query category(String name, Collection<String> values) {
+            if (values != null) {
+                categories.put(name, values);
+            }
+            return this;
+        }
+        
+        public Query range(String name, Number min, Number max) {
+            if (min != null || max != null) {
+                ranges.put(name, new Double[] {
+                    min == null ? null : min.doubleValue(),
+                    max == null ? null : max.doubleValue()
+                });
+            }
+            return this;
+        }
+    }
+    
+    private static class Category<T> {
+        private final Map<String, BitSet> bitmaps = new HashMap<>();
+        private final Map<String, String> labels = new HashMap<>();
+        // Null for attributes that never change with stock
+        private final Function<T, ?> stockAttribute;
+        
+        private Category(Function<T, ?> stockAttribute) {
+            this.stockAttribute = stockAttribute;
+        }
+        
+        private static <T> Category<T> build(List<T> products, Function<T, ?> attribute, Function<T, ?> stockAttribute) {
+            Category<T> category = new Category<>(stockAttribute);
+            for (int position = 0; position < products.size(); position++) {
+                category.add(attribute.apply(products.get(position)), position, products.size());
+            }
+            return category;
+        }
+        
+        private void add(Object value, int position, int size) {
+            if (value == null) {
+                return;
+            }
+            String label = String.valueOf(value);
+            String key = label.toLowerCase(Locale.ROOT);
+            labels.putIfAbsent(key, label);
+            bitmaps.computeIfAbsent(key, k -> new BitSet(size)).set(position);
+        }
+        
+        // Copies the bitmaps and moves each changed position to its current value
+        private Category<T> restock(List<T> products, int[] changedPositions) {
+            Category<T> next = new Category<>(stockAttribute);
+            next.labels.putAll(labels);
+            bitmaps.forEach((key, bitmap) -> next.bitmaps.put(key, (BitSet) bitmap.clone()));
+            for (int position : changedPositions) {
+                next.bitmaps.values().forEach(bitmap -> bitmap.clear(position));
+                next.add(stockAttribute.apply(products.get(position)), position, products.size());
+            }
+            return next;
+        }
+        
+        private BitSet anyOf(Collection<String> values, int size) {
+            BitSet result = new BitSet(size);
+            for (String value : values) {
+                BitSet bitmap = bitmaps.get(value.toLowerCase(Locale.ROOT));
+                if (bitmap != null) {
+                    result.or(bitmap);
+                }
+            }
+            return result;
+        }
+    }
+    
+    private static class Range {
+        private final int[] positions;
+        private final double[] sortedValues;
+        private int valid;
+        // prefixes[b] holds the positions of the first b * RANGE_BLOCK values in order
+        private BitSet[] prefixes;
+        
+        private Range(int size) {
+            this.positions = new int[size];
+            this.sortedValues = new double[size];
+        }
+        
+        private void buildPrefixes() {
+            prefixes = new BitSet[valid / RANGE_BLOCK + 1];
+            BitSet running = new BitSet(positions.length);
+            prefixes[0] = (BitSet) running.clone();
+            for (int i = 0; i < valid; i++) {
+                running.set(positions[i]);
+                if ((i + 1) % RANGE_BLOCK == 0) {
+                    prefixes[(i + 1) / RANGE_BLOCK] = (BitSet) running.clone();
+                }
+            }
+        }
+        
+        private BitSet between(Double min, Double max) {
+            int from = min == null ? 0 : lowerBound(min);
+            int to = max == null ? valid : upperBound(max);
+            BitSet result = prefix(to);
+            if (from > 0) {
+                result.andNot(prefix(from));
+            }
+            return result;
+        }
+        
+        // Positions of the first end values in order: nearest prebuilt prefix plus the remainder
+        private BitSet prefix(int end) {
+            int block = end / RANGE_BLOCK;
+            BitSet result = (BitSet) prefixes[block].clone();
+            for (int i = block * RANGE_BLOCK; i < end; i++) {
+                result.set(positions[i]);
+            }
+            return result;
+        }
+        
+        // First index whose value is >= target
+        private int lowerBound(double target) {
+            int low = 0;
+            int high = valid;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedValues[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        
+        // First index whose value is > target
+        private int upperBound(double target) {
+            int low = 0;
+            int high = valid;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedValues[mid] <= target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.laptopstore.service;
+
+import com.example.laptopstore.entity.Laptop;
+import com.example.laptopstore.entity.Mouse;
+import com.example.laptopstore.exception.InsufficientStockException;
+import com.example.laptopstore.repository.LaptopRepository;
+import com.example.laptopstore.repository.MouseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stock reservation for laptops and mice.
+ *
+ * Every change is a single guarded UPDATE ({@code stock_quantity = stock_quantity - :q
+ * WHERE id = :id AND stock_quantity >= :q}), so concurrent orders can neither lose
+ * updates nor drive stock negative. Rows are always touched in the same order
+ * (laptops, then mice, each by ascending id) so two transactions covering the same
+ * products cannot deadlock on each other's row locks.
+ *
+ * With {@code inventory.ledger.enabled} stock is instead reserved against the
+ * in-memory {@link StockLedger} and written to the rows in batches behind it.
+ */
+@Service
+public class InventoryService {
+    
+    @Autowired
+    private LaptopRepository laptopRepository;
+    
+    @Autowired
+    private MouseRepository mouseRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    /**
+     * True when reservations go to the in-memory ledger and reach the product rows
+     * only when it flushes; orders placed that way carry {@code stock_pending}.
+     */
+    public boolean isWriteBehind() {
+        return stockLedger.isEnabled();
+    }
+    
+    public int laptopStock(Laptop laptop) {
+        return stockLedger.isEnabled() ? stockLedger.laptopStock(laptop.getId()) : laptop.getStockQuantity();
+    }
+    
+    public int mouseStock(Mouse mouse) {
+        return stockLedger.isEnabled() ? stockLedger.mouseStock(mouse.getId()) : mouse.getStockQuantity();
+    }
+    
+    /**
+     * Decrements stock for every product of order {@code orderId} (null for stock taken
+     * outside an order), keyed by id with the requested quantity. Throws if any product
+     * is short; the caller's transaction then rolls back the decrements already applied.
+     */
+    @Transactional
+    public void reserve(Long orderId, Map<Long, Integer> laptopQuantities, Map<Long, Integer> mouseQuantities) {
+        if (stockLedger.isEnabled()) {
+            stockLedger.reserve(orderId, laptopQuantities, mouseQuantities);
+            return;
+        }
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(laptopQuantities).entrySet()) {
+            if (laptopRepository.decrementStock(entry.getKey(), entry.getValue()) == 0) {
+                throw new InsufficientStockException("Insufficient stock for laptop with id: " + entry.getKey());
+            }
+        }
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(mouseQuantities).entrySet()) {
+            if (mouseRepository.decrementStock(entry.getKey(), entry.getValue()) == 0) {
+                throw new InsufficientStockException("Insufficient stock for mouse with id: " + entry.getKey());
+            }
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.stock(laptopQuantities.keySet(), mouseQuantities.keySet()));
+    }
+    
+    /**
+     * Returns previously reserved stock, e.g. when a pending order is cancelled.
+     */
+    @Transactional
+    public void release(Map<Long, Integer> laptopQuantities, Map<Long, Integer> mouseQuantities) {
+        if (stockLedger.isEnabled()) {
+            stockLedger.release(laptopQuantities, mouseQuantities);
+            return;
+        }
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(laptopQuantities).entrySet()) {
+            laptopRepository.incrementStock(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(mouseQuantities).entrySet()) {
+            mouseRepository.incrementStock(entry.getKey(), entry.getValue());
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.stock(laptopQuantities.keySet(), mouseQuantities.keySet()));
+    }
+}
@@ -1,59 +1,186 @@
 package com.example.laptopstore.service;
 
+import com.example.laptopstore.dto.CursorPageDto;
+import com.example.laptopstore.dto.FacetResultDto;
+import com.example.laptopstore.dto.LaptopFilterDto;
 import com.example.laptopstore.entity.Laptop;
 import com.example.laptopstore.repository.LaptopRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Catalog reads are served from the {@link CatalogCache} snapshot and run without a
+ * transaction, so they never borrow a database connection; only the paginated
+ * listing goes to the database. Stock changes go through {@link InventoryService}.
+ */
 @Service
-@Transactional(readOnly = true)
 public class LaptopService {
     
+    private static final Map<String, CatalogSort<Laptop>> SORTS = Map.of(
+        "price", new CatalogSort<>("price", Laptop::getPrice, BigDecimal::new),
+        "ram_gb", new CatalogSort<>("ramGb", Laptop::getRamGb, Integer::valueOf),
+        "screen_size", new CatalogSort<>("screenSize", Laptop::getScreenSize, Double::valueOf),
+        "created_at", new CatalogSort<>("createdAt", Laptop::getCreatedAt, LocalDateTime::parse)
+    );
+    
     @Autowired
     private LaptopRepository laptopRepository;
     
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @Value("${catalog.page.default-size:24}")
+    private int defaultPageSize;
+    
+    @Value("${catalog.page.max-size:100}")
+    private int maxPageSize;
+    
+    @Value("${catalog.search.default-limit:20}")
+    private int defaultSearchLimit;
+    
+    @Value("${catalog.search.max-limit:100}")
+    private int maxSearchLimit;
+    
+    // Field weights for brand, model, processor, graphics
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex(3, 3, 1, 1);
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        catalogCache.current().getLaptops().forEach(this::indexLaptop);
+    }
+    
+    public void indexLaptop(Laptop laptop) {
+        searchIndex.index(laptop.getId(), laptop.getBrand(), laptop.getModel(), laptop.getProcessor(), laptop.getGraphics());
+    }
+    
+    public void removeFromSearchIndex(Long laptopId) {
+        searchIndex.remove(laptopId);
+    }
+    
     public List<Laptop> getAllLaptops() {
-        return laptopRepository.findAll();
+        return catalogCache.current().getLaptops();
     }
     
     public Optional<Laptop> getLaptopById(Long id) {
-        return laptopRepository.findById(id);
+        return Optional.ofNullable(catalogCache.current().getLaptop(id));
     }
     
     public List<Laptop> getAvailableLaptops() {
-        return laptopRepository.findAvailableLaptops();
+        return catalogCache.current().getAvailableLaptops();
     }
     
-    public List<Laptop> searchLaptops(String searchTerm) {
-        return laptopRepository.searchLaptops(searchTerm);
+    /**
+     * Ranked search over the in-memory index, resolved against the catalog snapshot.
+     */
+    public List<Laptop> searchLaptops(String searchTerm, Integer limit) {
+        int maxResults = limit == null ? defaultSearchLimit : Math.max(1, Math.min(limit, maxSearchLimit));
+        List<Long> ids = searchIndex.search(searchTerm, maxResults);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        CatalogSnapshot snapshot = catalogCache.current();
+        List<Laptop> results = new ArrayList<>();
+        for (Long id : ids) {
+            Laptop laptop = snapshot.getLaptop(id);
+            if (laptop != null) {
+                results.add(laptop);
+            }
+        }
+        return results;
     }
     
     public List<Laptop> getLaptopsByBrand(String brand) {
-        return laptopRepository.findByBrandIgnoreCase(brand);
+        return catalogCache.current().getLaptopsByBrand(brand);
+    }
+    
+    /**
+     * Faceted filter over the catalog snapshot. Besides the matching page, returns
+     * per-value counts for brand, graphics and availability.
+     */
+    public FacetResultDto<Laptop> filterLaptops(LaptopFilterDto filter) {
+        FacetIndex<Laptop> index = catalogCache.current().derived("laptopFacets", snapshot ->
+            new FacetIndex<>(snapshot.getLaptops())
+                .category("brand", Laptop::getBrand)
+                .category("graphics", Laptop::getGraphics)
+                .stockCategory("available", laptop -> laptop.getStockQuantity() > 0)
+                .range("price", Laptop::getPrice)
+                .range("ram_gb", Laptop::getRamGb)
+                .range("storage_gb", Laptop::getStorageGb)
+                .range("screen_size", Laptop::getScreenSize),
+            (previous, snapshot) -> previous.restock(snapshot.getLaptops(), snapshot.getRestockedLaptopPositions()));
+        
+        FacetIndex.Query query = new FacetIndex.Query()
+            .category("brand", filter.getBrand())
+            .category("graphics", filter.getGraphics())
+            .category("available", filter.getAvailable() == null ? null : List.of(filter.getAvailable().toString()))
+            .range("price", filter.getMinPrice(), filter.getMaxPrice())
+            .range("ram_gb", filter.getMinRamGb(), filter.getMaxRamGb())
+            .range("storage_gb", filter.getMinStorageGb(), filter.getMaxStorageGb())
+            .range("screen_size", filter.getMinScreenSize(), filter.getMaxScreenSize());
+        
+        int offset = filter.getOffset() == null ? 0 : Math.max(0, filter.getOffset());
+        int pageSize = filter.getLimit() == null ? defaultPageSize : Math.max(1, Math.min(filter.getLimit(), maxPageSize));
+        return index.query(query, offset, pageSize);
+    }
+    
+    /**
+     * Keyset-paginated listing, optionally narrowed to one brand and/or in-stock items.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<Laptop> getLaptopPage(String brand, boolean availableOnly, String sort,
+                                               String direction, Integer limit, String cursor) {
+        CatalogSort<Laptop> sortKey = SORTS.get(sort);
+        if (sortKey == null) {
+            throw new RuntimeException("Unsupported sort field: " + sort);
+        }
+        Sort.Direction sortDirection = CatalogSort.parseDirection(direction);
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        
+        Specification<Laptop> spec = Specification.where(null);
+        if (brand != null && !brand.isEmpty()) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("brandKey"), brand.toLowerCase()));
+        }
+        if (availableOnly) {
+            spec = spec.and((root, query, cb) -> cb.greaterThan(root.get("stockQuantity"), 0));
+        }
+        if (cursor != null && !cursor.isEmpty()) {
+            spec = spec.and(sortKey.after(PageCursor.decode(cursor), sortDirection));
+        }
+        
+        List<Laptop> rows = laptopRepository.findBy(spec,
+            q -> q.sortBy(sortKey.toSort(sortDirection)).limit(pageSize + 1).all());
+        return sortKey.toPage(rows, pageSize, Laptop::getId);
     }
     
+    /**
+     * Takes {@code quantity} units outside any order, on the same guarded (or ledger)
+     * path as order placement. Not for use while group commit is on, which relies on
+     * being the only taker of stock (see {@link OrderService#createOrder}).
+     */
     @Transactional
     public void updateStock(Long laptopId, Integer quantity) {
-        Optional<Laptop> laptopOpt = laptopRepository.findById(laptopId);
-        if (laptopOpt.isPresent()) {
-            Laptop laptop = laptopOpt.get();
-            int newStock = laptop.getStockQuantity() - quantity;
-            if (newStock < 0) {
-                throw new RuntimeException("Insufficient stock for laptop: " + laptop.getBrand() + " " + laptop.getModel());
-            }
-            laptop.setStockQuantity(newStock);
-            laptopRepository.save(laptop);
-        } else {
-            throw new RuntimeException("Laptop not found with id: " + laptopId);
-        }
+        inventoryService.reserve(null, Map.of(laptopId, quantity), Map.of());
     }
     
     public boolean isStockAvailable(Long laptopId, Integer quantity) {
-        Optional<Laptop> laptopOpt = laptopRepository.findById(laptopId);
-        return laptopOpt.map(laptop -> laptop.getStockQuantity() >= quantity).orElse(false);
+        Laptop laptop = catalogCache.current().getLaptop(laptopId);
+        return laptop != null && inventoryService.laptopStock(laptop) >= quantity;
     }
 }
@@ -1,63 +1,192 @@
 package com.example.laptopstore.service;
 
+import com.example.laptopstore.dto.CursorPageDto;
+import com.example.laptopstore.dto.FacetResultDto;
+import com.example.laptopstore.dto.MouseFilterDto;
 import com.example.laptopstore.entity.Mouse;
 import com.example.laptopstore.repository.MouseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Catalog reads are served from the {@link CatalogCache} snapshot and run without a
+ * transaction, so they never borrow a database connection; only the paginated
+ * listing goes to the database. Stock changes go through {@link InventoryService}.
+ */
 @Service
-@Transactional(readOnly = true)
 public class MouseService {
     
+    private static final Map<String, CatalogSort<Mouse>> SORTS = Map.of(
+        "price", new CatalogSort<>("price", Mouse::getPrice, BigDecimal::new),
+        "dpi", new CatalogSort<>("dpi", Mouse::getDpi, Integer::valueOf),
+        "weight_grams", new CatalogSort<>("weightGrams", Mouse::getWeightGrams, Integer::valueOf),
+        "created_at", new CatalogSort<>("createdAt", Mouse::getCreatedAt, LocalDateTime::parse)
+    );
+    
     @Autowired
     private MouseRepository mouseRepository;
     
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @Value("${catalog.page.default-size:24}")
+    private int defaultPageSize;
+    
+    @Value("${catalog.page.max-size:100}")
+    private int maxPageSize;
+    
+    @Value("${catalog.search.default-limit:20}")
+    private int defaultSearchLimit;
+    
+    @Value("${catalog.search.max-limit:100}")
+    private int maxSearchLimit;
+    
+    // Field weights for brand, model, mouse type, connectivity
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex(3, 3, 1, 1);
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildSearchIndex() {
+        catalogCache.current().getMice().forEach(this::indexMouse);
+    }
+    
+    public void indexMouse(Mouse mouse) {
+        searchIndex.index(mouse.getId(), mouse.getBrand(), mouse.getModel(), mouse.getMouseType(), mouse.getConnectivity());
+    }
+    
+    public void removeFromSearchIndex(Long mouseId) {
+        searchIndex.remove(mouseId);
+    }
+    
     public List<Mouse> getAllMice() {
-        return mouseRepository.findAll();
+        return catalogCache.current().getMice();
     }
     
     public Optional<Mouse> getMouseById(Long id) {
-        return mouseRepository.findById(id);
+        return Optional.ofNullable(catalogCache.current().getMouse(id));
     }
     
     public List<Mouse> getAvailableMice() {
-        return mouseRepository.findAvailableMice();
+        return catalogCache.current().getAvailableMice();
     }
     
-    public List<Mouse> searchMice(String searchTerm) {
-        return mouseRepository.searchMice(searchTerm);
+    /**
+     * Ranked search over the in-memory index, resolved against the catalog snapshot.
+     */
+    public List<Mouse> searchMice(String searchTerm, Integer limit) {
+        int maxResults = limit == null ? defaultSearchLimit : Math.max(1, Math.min(limit, maxSearchLimit));
+        List<Long> ids = searchIndex.search(searchTerm, maxResults);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        CatalogSnapshot snapshot = catalogCache.current();
+        List<Mouse> results = new ArrayList<>();
+        for (Long id : ids) {
+            Mouse mouse = snapshot.getMouse(id);
+            if (mouse != null) {
+                results.add(mouse);
+            }
+        }
+        return results;
     }
     
     public List<Mouse> getMiceByBrand(String brand) {
-        return mouseRepository.findByBrandIgnoreCase(brand);
+        return catalogCache.current().getMiceByBrand(brand);
     }
     
     public List<Mouse> getMiceByType(String mouseType) {
-        return mouseRepository.findByMouseTypeIgnoreCase(mouseType);
+        return catalogCache.current().getMiceByType(mouseType);
+    }
+    
+    /**
+     * Faceted filter over the catalog snapshot. Besides the matching page, returns
+     * per-value counts for brand, type, connectivity, RGB lighting and availability.
+     */
+    public FacetResultDto<Mouse> filterMice(MouseFilterDto filter) {
+        FacetIndex<Mouse> index = catalogCache.current().derived("mouseFacets", snapshot ->
+            new FacetIndex<>(snapshot.getMice())
+                .category("brand", Mouse::getBrand)
+                .category("mouse_type", Mouse::getMouseType)
+                .category("connectivity", Mouse::getConnectivity)
+                .category("rgb_lighting", Mouse::getRgbLighting)
+                .stockCategory("available", mouse -> mouse.getStockQuantity() > 0)
+                .range("price", Mouse::getPrice)
+                .range("dpi", Mouse::getDpi)
+                .range("weight_grams", Mouse::getWeightGrams),
+            (previous, snapshot) -> previous.restock(snapshot.getMice(), snapshot.getRestockedMousePositions()));
+        
+        FacetIndex.Query query = new FacetIndex.Query()
+            .category("brand", filter.getBrand())
+            .category("mouse_type", filter.getMouseType())
+            .category("connectivity", filter.getConnectivity())
+            .category("rgb_lighting", filter.getRgbLighting() == null ? null : List.of(filter.getRgbLighting().toString()))
+            .category("available", filter.getAvailable() == null ? null : List.of(filter.getAvailable().toString()))
+            .range("price", filter.getMinPrice(), filter.getMaxPrice())
+            .range("dpi", filter.getMinDpi(), filter.getMaxDpi())
+            .range("weight_grams", filter.getMinWeightGrams(), filter.getMaxWeightGrams());
+        
+        int offset = filter.getOffset() == null ? 0 : Math.max(0, filter.getOffset());
+        int pageSize = filter.getLimit() == null ? defaultPageSize : Math.max(1, Math.min(filter.getLimit(), maxPageSize));
+        return index.query(query, offset, pageSize);
+    }
+    
+    /**
+     * Keyset-paginated listing, optionally narrowed to one brand and/or in-stock items.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<Mouse> getMousePage(String brand, boolean availableOnly, String sort,
+                                             String direction, Integer limit, String cursor) {
+        CatalogSort<Mouse> sortKey = SORTS.get(sort);
+        if (sortKey == null) {
+            throw new RuntimeException("Unsupported sort field: " + sort);
+        }
+        Sort.Direction sortDirection = CatalogSort.parseDirection(direction);
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        
+        Specification<Mouse> spec = Specification.where(null);
+        if (brand != null && !brand.isEmpty()) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("brandKey"), brand.toLowerCase()));
+        }
+        if (availableOnly) {
+            spec = spec.and((root, query, cb) -> cb.greaterThan(root.get("stockQuantity"), 0));
+        }
+        if (cursor != null && !cursor.isEmpty()) {
+            spec = spec.and(sortKey.after(PageCursor.decode(cursor), sortDirection));
+        }
+        
+        List<Mouse> rows = mouseRepository.findBy(spec,
+            q -> q.sortBy(sortKey.toSort(sortDirection)).limit(pageSize + 1).all());
+        return sortKey.toPage(rows, pageSize, Mouse::getId);
     }
     
+    /**
+     * Takes {@code quantity} units outside any order, on the same guarded (or ledger)
+     * path as order placement. Not for use while group commit is on, which relies on
+     * being the only taker of stock (see {@link OrderService#createOrder}).
+     */
     @Transactional
     public void updateStock(Long mouseId, Integer quantity) {
-        Optional<Mouse> mouseOpt = mouseRepository.findById(mouseId);
-        if (mouseOpt.isPresent()) {
-            Mouse mouse = mouseOpt.get();
-            int newStock = mouse.getStockQuantity() - quantity;
-            if (newStock < 0) {
-                throw new RuntimeException("Insufficient stock for mouse: " + mouse.getBrand() + " " + mouse.getModel());
-            }
-            mouse.setStockQuantity(newStock);
-            mouseRepository.save(mouse);
-        } else {
-            throw new RuntimeException("Mouse not found with id: " + mouseId);
-        }
+        inventoryService.reserve(null, Map.of(), Map.of(mouseId, quantity));
     }
     
     public boolean isStockAvailable(Long mouseId, Integer quantity) {
-        Optional<Mouse> mouseOpt = mouseRepository.findById(mouseId);
-        return mouseOpt.map(mouse -> mouse.getStockQuantity() >= quantity).orElse(false);
+        Mouse mouse = catalogCache.current().getMouse(mouseId);
+        return mouse != null && inventoryService.mouseStock(mouse) >= quantity;
     }
 }
@@ -0,0 +1,272 @@
+package com.example.laptopstore.service;
+
+import com.example.laptopstore.dto.OrderCreateDto;
+import com.example.laptopstore.dto.OrderResponseDto;
+import com.example.laptopstore.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for order placement, switched on with {@code orders.group-commit.enabled}.
+ *
+ * Callers hand their order to a single committer thread and wait for its result. The
+ * committer takes the first waiting order, keeps collecting for up to
+ * {@code window-ms} or until {@code max-batch} orders, and places the whole group in
+ * one transaction with one commit. Orders are validated one by one against the stock
+ * the group has left, so an order that is rejected (bad item, insufficient stock)
+ * fails alone and only its caller sees the error. Callers are answered after the
+ * commit. If the group as a whole fails (a lock conflict, a failed flush or commit),
+ * every order in it is placed again in its own transaction with the usual conflict
+ * retries.
+ *
+ * The intake queue holds {@code queue-capacity} orders; beyond that callers get
+ * {@link ServiceUnavailableException}. Group sizes and fallbacks are published as
+ * {@code orders.group-commit.size} and {@code orders.group-commit.fallbacks}.
+ */
+@Service
+public class OrderGroupCommitter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderGroupCommitter.class);
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    @Lazy
+    private OrderPlacementService orderPlacementService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${orders.group-commit.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${orders.group-commit.window-ms:2}")
+    private long windowMs;
+    
+    @Value("${orders.group-commit.max-batch:64}")
+    private int maxBatch;
+    
+    @Value("${orders.group-commit.queue-capacity:1024}")
+    private int queueCapacity;
+    
+    @Value("${orders.group-commit.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+    
+    private BlockingQueue<PendingOrder> queue;
+    private TransactionTemplate groupTransaction;
+    private Thread committer;
+    private volatile boolean running;
+    private DistributionSummary groupSize;
+    private Counter fallbacks;
+    
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        groupTransaction = new TransactionTemplate(transactionManager);
+        
+        groupSize = DistributionSummary.builder("orders.group-commit.size").register(meterRegistry);
+        fallbacks = Counter.builder("orders.group-commit.fallbacks").register(meterRegistry);
+        
+        running = true;
+        committer = new Thread(this::run, "order-group-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Queues the order for the next group and waits, at most {@code wait-timeout-ms},
+     * until that group is committed. Throws the same exceptions as
+     * {@link OrderService#createOrder}.
+     */
+    public OrderResponseDto submit(Long userId, OrderCreateDto orderCreateDto) {
+        PendingOrder pending = new PendingOrder(userId, orderCreateDto);
+        if (!running || !queue.offer(pending)) {
+            throw new ServiceUnavailableException("Too many orders in flight, please retry shortly");
+        }
+        // Shutdown may have drained the queue just before the offer; take the order back
+        if (!running && queue.remove(pending)) {
+            throw new ServiceUnavailableException("Shutting down, please retry");
+        }
+        try {
+            return pending.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Order placement failed", e.getCause());
+        } catch (TimeoutException e) {
+            // The group may still commit; the order history shows whether it did
+            throw new ServiceUnavailableException("Order placement is taking too long, check your orders before retrying");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Order placement was interrupted, check your orders before retrying");
+        }
+    }
+    
+    private void run() {
+        while (running) {
+            List<PendingOrder> group;
+            try {
+                group = nextGroup();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            try {
+                commitGroup(group);
+            } catch (Throwable e) {
+                // Never leave a caller waiting
+                logger.error("Order group commit failed unexpectedly", e);
+                group.forEach(pending -> pending.result.completeExceptionally(
+                    new RuntimeException("Order placement failed, please retry")));
+            }
+        }
+    }
+    
+    private List<PendingOrder> nextGroup() throws InterruptedException {
+        List<PendingOrder> group = new ArrayList<>();
+        group.add(queue.take());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+        while (group.size() < maxBatch) {
+            queue.drainTo(group, maxBatch - group.size());
+            long remaining = deadline - System.nanoTime();
+            if (group.size() >= maxBatch || remaining <= 0) {
+                break;
+            }
+            PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+        return group;
+    }
+    
+    private void commitGroup(List<PendingOrder> group) {
+        groupSize.record(group.size());
+        List<Outcome> outcomes;
+        try {
+            outcomes = groupTransaction.execute(status -> {
+                List<Outcome> placed = new ArrayList<>();
+                for (PendingOrder pending : group) {
+                    placed.add(place(pending));
+                }
+                return placed;
+            });
+        } catch (RuntimeException e) {
+            fallbacks.increment();
+            logger.warn("Group of {} orders failed ({}), placing them one by one", group.size(), e.getMessage());
+            for (PendingOrder pending : group) {
+                try {
+                    pending.result.complete(orderPlacementService.placeWithRetry(pending.userId, pending.orderCreateDto));
+                } catch (RuntimeException orderFailure) {
+                    pending.result.completeExceptionally(orderFailure);
+                }
+            }
+            return;
+        }
+        
+        for (int i = 0; i < group.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            if (outcome.failure != null) {
+                group.get(i).result.completeExceptionally(outcome.failure);
+            } else {
+                group.get(i).result.complete(outcome.response);
+            }
+        }
+        logger.debug("Committed a group of {} orders", group.size());
+    }
+    
+    // Each order is validated before it is placed, outside any transactional call, so a
+    // rejected order writes nothing and does not mark the group transaction rollback-only.
+    // While group commit is on, every order goes through OrderPlacementService.placeOrder
+    // (see OrderService#createOrder), so the committer is the only thread taking stock and
+    // an order that validates against what the group has left is also reserved without failing.
+    private Outcome place(PendingOrder pending) {
+        try {
+            orderService.validateOrder(pending.orderCreateDto);
+        } catch (DataAccessException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return new Outcome(null, e);
+        }
+        OrderResponseDto response = orderService.createOrder(pending.userId, pending.orderCreateDto);
+        // Write and detach this order so the next validation reads the stock it left
+        entityManager.flush();
+        entityManager.clear();
+        return new Outcome(response, null);
+    }
+    
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        if (committer == null) {
+            return;
+        }
+        committer.interrupt();
+        committer.join(TimeUnit.SECONDS.toMillis(10));
+        // Nothing takes from the queue any more; answer whatever is left in it
+        List<PendingOrder> unplaced = new ArrayList<>();
+        queue.drainTo(unplaced);
+        unplaced.forEach(pending -> pending.result.completeExceptionally(
+            new ServiceUnavailableException("Shutting down, please retry")));
+    }
+    
+    private static final class PendingOrder {
+        private final Long userId;
+        private final OrderCreateDto orderCreateDto;
+        private final CompletableFuture<OrderResponseDto> result = new CompletableFuture<>();
+        
+        private PendingOrder(Long userId, OrderCreateDto orderCreateDto) {
+            this.userId = userId;
+            this.orderCreateDto = orderCreateDto;
+        }
+    }
+    
+    private static final class Outcome {
+        private final OrderResponseDto response;
+        private final RuntimeException failure;
+        
+        private Outcome(OrderResponseDto response, RuntimeException failure) {
+            this.response = response;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.laptopstore.service;
+
+import com.example.laptopstore.dto.OrderCreateDto;
+import com.example.laptopstore.dto.OrderIntakeDto;
+import com.example.laptopstore.dto.OrderResponseDto;
+import com.example.laptopstore.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous order intake. An accepted order gets a handle at once and is placed by
+ * a small worker pool through {@link OrderPlacementService}; the caller polls the
+ * handle for the outcome (ACCEPTED, PROCESSING, then CREATED or FAILED).
+ *
+ * The pool has {@code orders.async.workers} threads and a queue of
+ * {@code orders.async.queue-capacity} orders. When both are full the order is refused
+ * with {@link ServiceUnavailableException} rather than accepted into an unbounded
+ * backlog. Handles are kept in memory for {@code orders.async.result-ttl-ms} after the
+ * order completes, at most {@code orders.async.max-entries} of them; a full map drops
+ * expired handles first, then the oldest completed ones. On shutdown, orders already
+ * accepted are still placed.
+ */
+@Service
+public class OrderIntakeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeService.class);
+    
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${orders.async.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${orders.async.workers:4}")
+    private int workers;
+    
+    @Value("${orders.async.queue-capacity:256}")
+    private int queueCapacity;
+    
+    @Value("${orders.async.result-ttl-ms:600000}")
+    private long resultTtlMs;
+    
+    @Value("${orders.async.max-entries:10000}")
+    private int maxEntries;
+    
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private Counter rejected;
+    
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "order-intake-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        
+        rejected = Counter.builder("orders.async.rejected").register(meterRegistry);
+        Gauge.builder("orders.async.queue", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * How long a handle stays pollable once its order completes.
+     */
+    public long getResultTtlMs() {
+        return resultTtlMs;
+    }
+    
+    public OrderIntakeDto submit(Long userId, OrderCreateDto orderCreateDto) {
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), userId);
+        tickets.put(ticket.handle, ticket);
+        if (tickets.size() > maxEntries) {
+            evict();
+        }
+        try {
+            executor.execute(() -> place(ticket, orderCreateDto));
+        } catch (RejectedExecutionException e) {
+            tickets.remove(ticket.handle);
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many orders waiting, please retry shortly");
+        }
+        return ticket.toDto();
+    }
+    
+    /**
+     * Returns the state of an accepted order, or empty if the handle is unknown,
+     * expired or belongs to another user.
+     */
+    public Optional<OrderIntakeDto> getStatus(String handle, Long userId) {
+        Ticket ticket = tickets.get(handle);
+        if (ticket == null || !ticket.userId.equals(userId)) {
+            return Optional.empty();
+        }
+        return Optional.of(ticket.toDto());
+    }
+    
+    private void place(Ticket ticket, OrderCreateDto orderCreateDto) {
+        ticket.status = Status.PROCESSING;
+        try {
+            ticket.order = orderPlacementService.placeOrder(ticket.userId, orderCreateDto);
+            ticket.status = Status.CREATED;
+        } catch (RuntimeException e) {
+            ticket.message = e.getMessage();
+            ticket.status = Status.FAILED;
+        } finally {
+            // An Error skips the catch; still finish the ticket so it can expire
+            if (ticket.status == Status.PROCESSING) {
+                ticket.message = "Order could not be placed";
+                ticket.status = Status.FAILED;
+            }
+            ticket.completedAt = System.currentTimeMillis();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${orders.async.cleanup-interval-ms:60000}")
+    public void removeExpired() {
+        long cutoff = System.currentTimeMillis() - resultTtlMs;
+        tickets.values().removeIf(ticket -> ticket.completedAt != 0 && ticket.completedAt < cutoff);
+    }
+    
+    private void evict() {
+        removeExpired();
+        
+        // Still full: drop the oldest quarter of completed tickets; pending ones stay
+        int excess = tickets.size() - (maxEntries * 3 / 4);
+        if (excess <= 0) {
+            return;
+        }
+        tickets.values().stream()
+            .filter(ticket -> ticket.completedAt != 0)
+            .sorted(Comparator.comparingLong(ticket -> ticket.completedAt))
+            .limit(excess)
+            .toList()
+            .forEach(ticket -> tickets.remove(ticket.handle, ticket));
+    }
+    
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("{} accepted orders were not placed before shutdown", executor.getQueue().size());
+            executor.shutdownNow();
+        }
+    }
+    
+    private enum Status {
+        ACCEPTED, PROCESSING, CREATED, FAILED
+    }
+    
+    private static final class Ticket {
+        private final String handle;
+        private final Long userId;
+        private volatile Status status = Status.ACCEPTED;
+        private volatile OrderResponseDto order;
+        private volatile String message;
+        private volatile long completedAt;
+        
+        private Ticket(String handle, Long userId) {
+            this.handle = handle;
+            this.userId = userId;
+        }
+        
+        // status is written last by the worker, so a CREATED or FAILED read sees its result
+        private OrderIntakeDto toDto() {
+            Status current = status;
+            return new OrderIntakeDto(handle, current.name(),
+                current == Status.CREATED ? order : null,
+                current == Status.FAILED ? message : null);
+        }
+    }
+}
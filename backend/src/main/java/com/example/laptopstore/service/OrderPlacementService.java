@@ -0,0 +1,102 @@
+package com.example.laptopstore.service;
+
+import com.example.laptopstore.dto.OrderCreateDto;
+import com.example.laptopstore.dto.OrderResponseDto;
+import com.example.laptopstore.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Places orders, retrying the whole order transaction when it loses a race on a
+ * product row: an optimistic lock conflict on a product's {@code version}, a lock
+ * timeout or a deadlock. Each attempt runs in a fresh transaction after a randomised
+ * backoff that doubles per attempt, so colliding checkouts spread out instead of
+ * colliding again. After {@code orders.placement.max-attempts} the caller gets
+ * {@link ServiceUnavailableException}.
+ *
+ * Conflicts, retries and exhausted placements are counted as
+ * {@code orders.placement.conflicts}, {@code .retries} and {@code .exhausted}.
+ *
+ * With group commit on, orders go through {@link OrderGroupCommitter} instead.
+ */
+@Service
+public class OrderPlacementService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderPlacementService.class);
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private OrderGroupCommitter orderGroupCommitter;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${orders.placement.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${orders.placement.backoff-ms:20}")
+    private long backoffMs;
+    
+    private Counter conflicts;
+    private Counter retries;
+    private Counter exhausted;
+    
+    @PostConstruct
+    void init() {
+        conflicts = Counter.builder("orders.placement.conflicts").register(meterRegistry);
+        retries = Counter.builder("orders.placement.retries").register(meterRegistry);
+        exhausted = Counter.builder("orders.placement.exhausted").register(meterRegistry);
+    }
+    
+    public OrderResponseDto placeOrder(Long userId, OrderCreateDto orderCreateDto) {
+        if (orderGroupCommitter.isEnabled()) {
+            return orderGroupCommitter.submit(userId, orderCreateDto);
+        }
+        return placeWithRetry(userId, orderCreateDto);
+    }
+    
+    /**
+     * Places the order in its own transaction, retrying on conflicts. Also the
+     * fallback for a group commit that failed as a whole.
+     */
+    public OrderResponseDto placeWithRetry(Long userId, OrderCreateDto orderCreateDto) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return orderService.createOrder(userId, orderCreateDto);
+            } catch (ConcurrencyFailureException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    logger.warn("Giving up on order for user {} after {} conflicting attempts: {}",
+                            userId, attempt, e.getMessage());
+                    throw new ServiceUnavailableException("Order could not be placed due to concurrent updates, please retry");
+                }
+                retries.increment();
+                logger.debug("Order for user {} conflicted on attempt {}, retrying: {}", userId, attempt, e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+    
+    // Full jitter: a random pause up to backoffMs * 2^(attempt - 1)
+    private void backoff(int attempt) {
+        long ceiling = backoffMs << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Order placement was interrupted");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.laptopstore.service;
 
+import com.example.laptopstore.dto.CursorPageDto;
 import com.example.laptopstore.dto.OrderCreateDto;
 import com.example.laptopstore.dto.OrderItemCreateDto;
 import com.example.laptopstore.dto.OrderItemResponseDto;
@@ -8,22 +9,35 @@ import com.example.laptopstore.entity.Laptop;
 import com.example.laptopstore.entity.Mouse;
 import com.example.laptopstore.entity.Order;
 import com.example.laptopstore.entity.OrderItem;
+import com.example.laptopstore.exception.InsufficientStockException;
 import com.example.laptopstore.repository.LaptopRepository;
 import com.example.laptopstore.repository.MouseRepository;
 import com.example.laptopstore.repository.OrderItemRepository;
 import com.example.laptopstore.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class OrderService {
     
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+    
     @Autowired
     private OrderRepository orderRepository;
     
@@ -36,95 +50,163 @@ public class OrderService {
     @Autowired
     private MouseRepository mouseRepository;
     
+    @Autowired
+    private InventoryService inventoryService;
+    
+    @Value("${orders.page.default-size:20}")
+    private int defaultPageSize;
+    
+    @Value("${orders.page.max-size:100}")
+    private int maxPageSize;
+    
+    /**
+     * Creates the order and reserves its stock in the caller's transaction. Order entry
+     * points must go through {@link OrderPlacementService#placeOrder} rather than call
+     * this directly: with group commit on, {@link OrderGroupCommitter} relies on being
+     * the only thread taking stock, and a stock decrement from anywhere else can make a
+     * validated order fail inside the group and roll back every order with it.
+     */
     @Transactional
     public OrderResponseDto createOrder(Long userId, OrderCreateDto orderCreateDto) {
+        ResolvedOrder resolved = resolve(orderCreateDto);
+        List<OrderItemCreateDto> itemsDto = orderCreateDto.getItems();
+        
+        // Create order; like its items it is only inserted when the transaction commits
+        Order order = new Order(userId, resolved.totalAmount, Order.OrderStatus.PENDING);
+        order.setStockPending(inventoryService.isWriteBehind());
+        order = orderRepository.save(order);
+        
+        // Reserve stock before anything is inserted
+        inventoryService.reserve(order.getId(), resolved.laptopDemand, resolved.mouseDemand);
+        
+        // Create order items; they are inserted together with the order as one JDBC batch at commit
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (OrderItemCreateDto itemDto : itemsDto) {
+            orderItems.add(new OrderItem(
+                order.getId(),
+                itemDto.getLaptopId(),
+                itemDto.getMouseId(),
+                itemDto.getQuantity(),
+                itemDto.getUnitPrice()
+            ));
+        }
+        List<OrderItemResponseDto> itemResponses = new ArrayList<>();
+        for (OrderItem orderItem : orderItemRepository.saveAll(orderItems)) {
+            itemResponses.add(toItemResponse(orderItem, resolved.laptops, resolved.mice));
+        }
+        
+        logger.debug("Created order {} with {} items using {} product queries",
+                order.getId(), itemsDto.size(), resolved.productQueries);
+        
+        // Create response
+        OrderResponseDto response = OrderResponseDto.fromEntity(order);
+        response.setItems(itemResponses);
+        
+        return response;
+    }
+    
+    /**
+     * Checks an order without writing anything: every item names exactly one existing
+     * product and stock covers the combined demand per product. Throws on the first
+     * problem, with the message {@link #createOrder} would give.
+     */
+    public void validateOrder(OrderCreateDto orderCreateDto) {
+        resolve(orderCreateDto);
+    }
+    
+    private ResolvedOrder resolve(OrderCreateDto orderCreateDto) {
         // Validate order items
         List<OrderItemCreateDto> itemsDto = orderCreateDto.getItems();
         if (itemsDto == null || itemsDto.isEmpty()) {
             throw new RuntimeException("Order must contain at least one item");
         }
         
-        // Calculate total amount and validate items
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        // Resolve every referenced product up front, one query per product type
+        Set<Long> laptopIds = new HashSet<>();
+        Set<Long> mouseIds = new HashSet<>();
         for (OrderItemCreateDto itemDto : itemsDto) {
             if (!itemDto.isValid()) {
                 throw new RuntimeException("Each item must have either a laptop or mouse, but not both");
             }
-            
-            // Validate product exists and has sufficient stock
             if (itemDto.hasLaptop()) {
-                Laptop laptop = laptopRepository.findById(itemDto.getLaptopId())
-                    .orElseThrow(() -> new RuntimeException("Laptop not found with id: " + itemDto.getLaptopId()));
-                if (laptop.getStockQuantity() < itemDto.getQuantity()) {
-                    throw new RuntimeException("Insufficient stock for laptop: " + laptop.getModel());
-                }
-            } else if (itemDto.hasMouse()) {
-                Mouse mouse = mouseRepository.findById(itemDto.getMouseId())
-                    .orElseThrow(() -> new RuntimeException("Mouse not found with id: " + itemDto.getMouseId()));
-                if (mouse.getStockQuantity() < itemDto.getQuantity()) {
-                    throw new RuntimeException("Insufficient stock for mouse: " + mouse.getModel());
-                }
+                laptopIds.add(itemDto.getLaptopId());
+            } else {
+                mouseIds.add(itemDto.getMouseId());
             }
-            
-            BigDecimal itemTotal = itemDto.getUnitPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity()));
-            totalAmount = totalAmount.add(itemTotal);
         }
         
-        // Create order
-        Order order = new Order(userId, totalAmount, Order.OrderStatus.PENDING);
-        order = orderRepository.save(order);
+        ResolvedOrder resolved = new ResolvedOrder();
+        if (!laptopIds.isEmpty()) {
+            laptopRepository.findAllById(laptopIds).forEach(laptop -> resolved.laptops.put(laptop.getId(), laptop));
+            resolved.productQueries++;
+        }
+        if (!mouseIds.isEmpty()) {
+            mouseRepository.findAllById(mouseIds).forEach(mouse -> resolved.mice.put(mouse.getId(), mouse));
+            resolved.productQueries++;
+        }
         
-        // Create order items and update stock
-        List<OrderItemResponseDto> itemResponses = new ArrayList<>();
+        // Calculate total amount and validate items; quantities are summed per product
+        // so a cart listing the same product twice is checked against its combined demand
         for (OrderItemCreateDto itemDto : itemsDto) {
-            OrderItem orderItem = new OrderItem(
-                order.getId(),
-                itemDto.getLaptopId(),
-                itemDto.getMouseId(),
-                itemDto.getQuantity(),
-                itemDto.getUnitPrice()
-            );
-            orderItem = orderItemRepository.save(orderItem);
-            
-            // Update stock
-            String productName;
-            String productType;
+            // Validate product exists and has sufficient stock
             if (itemDto.hasLaptop()) {
-                Laptop laptop = laptopRepository.findById(itemDto.getLaptopId()).get();
-                laptop.setStockQuantity(laptop.getStockQuantity() - itemDto.getQuantity());
-                laptopRepository.save(laptop);
-                productName = laptop.getBrand() + " " + laptop.getModel();
-                productType = "Laptop";
+                Laptop laptop = resolved.laptops.get(itemDto.getLaptopId());
+                if (laptop == null) {
+                    throw new RuntimeException("Laptop not found with id: " + itemDto.getLaptopId());
+                }
+                int demand = resolved.laptopDemand.merge(laptop.getId(), itemDto.getQuantity(), Integer::sum);
+                if (inventoryService.laptopStock(laptop) < demand) {
+                    throw new InsufficientStockException("Insufficient stock for laptop: " + laptop.getModel());
+                }
             } else {
-                Mouse mouse = mouseRepository.findById(itemDto.getMouseId()).get();
-                mouse.setStockQuantity(mouse.getStockQuantity() - itemDto.getQuantity());
-                mouseRepository.save(mouse);
-                productName = mouse.getBrand() + " " + mouse.getModel();
-                productType = "Mouse";
+                Mouse mouse = resolved.mice.get(itemDto.getMouseId());
+                if (mouse == null) {
+                    throw new RuntimeException("Mouse not found with id: " + itemDto.getMouseId());
+                }
+                int demand = resolved.mouseDemand.merge(mouse.getId(), itemDto.getQuantity(), Integer::sum);
+                if (inventoryService.mouseStock(mouse) < demand) {
+                    throw new InsufficientStockException("Insufficient stock for mouse: " + mouse.getModel());
+                }
             }
             
-            OrderItemResponseDto itemResponse = OrderItemResponseDto.fromEntity(orderItem, productName, productType);
-            itemResponses.add(itemResponse);
+            BigDecimal itemTotal = itemDto.getUnitPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity()));
+            resolved.totalAmount = resolved.totalAmount.add(itemTotal);
         }
         
-        // Create response
-        OrderResponseDto response = OrderResponseDto.fromEntity(order);
-        response.setItems(itemResponses);
-        
-        return response;
+        return resolved;
     }
     
-    public List<OrderResponseDto> getUserOrders(Long userId) {
-        List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        List<OrderResponseDto> responses = new ArrayList<>();
+    /**
+     * Returns one page of a user's orders, newest first, using keyset pagination on
+     * (created_at, id) so deep pages cost the same as the first one.
+     */
+    public CursorPageDto<OrderResponseDto> getUserOrders(Long userId, Integer limit, String cursor) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        // Fetch one extra row to learn whether another page follows
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
         
-        for (Order order : orders) {
-            OrderResponseDto response = OrderResponseDto.fromEntity(order);
-            response.setItems(getOrderItemsResponse(order.getId()));
-            responses.add(response);
+        List<Order> orders;
+        if (cursor == null || cursor.isEmpty()) {
+            orders = orderRepository.findFirstPageByUserId(userId, pageRequest);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            LocalDateTime createdAt;
+            try {
+                createdAt = LocalDateTime.parse(after.getValue());
+            } catch (DateTimeParseException e) {
+                throw new RuntimeException("Invalid page cursor");
+            }
+            orders = orderRepository.findPageByUserIdBefore(userId, createdAt, after.getId(), pageRequest);
         }
         
-        return responses;
+        String next = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            Order last = orders.get(pageSize - 1);
+            next = new PageCursor(last.getCreatedAt().toString(), last.getId()).encode();
+        }
+        
+        return new CursorPageDto<>(buildOrderResponses(orders), next);
     }
     
     public Optional<OrderResponseDto> getOrderById(Long orderId, Long userId) {
@@ -133,11 +215,7 @@ public class OrderService {
             return Optional.empty();
         }
         
-        Order order = orderOpt.get();
-        OrderResponseDto response = OrderResponseDto.fromEntity(order);
-        response.setItems(getOrderItemsResponse(order.getId()));
-        
-        return Optional.of(response);
+        return Optional.of(buildOrderResponses(List.of(orderOpt.get())).get(0));
     }
     
     @Transactional
@@ -148,10 +226,7 @@ public class OrderService {
         order.setStatus(status);
         order = orderRepository.save(order);
         
-        OrderResponseDto response = OrderResponseDto.fromEntity(order);
-        response.setItems(getOrderItemsResponse(order.getId()));
-        
-        return response;
+        return buildOrderResponses(List.of(order)).get(0);
     }
     
     @Transactional
@@ -165,57 +240,96 @@ public class OrderService {
         
         // Restore stock quantities
         List<OrderItem> items = orderItemRepository.findByOrderIdOrderById(orderId);
+        Map<Long, Integer> laptopQuantities = new HashMap<>();
+        Map<Long, Integer> mouseQuantities = new HashMap<>();
         for (OrderItem item : items) {
             if (item.hasLaptop()) {
-                Laptop laptop = laptopRepository.findById(item.getLaptopId()).get();
-                laptop.setStockQuantity(laptop.getStockQuantity() + item.getQuantity());
-                laptopRepository.save(laptop);
+                laptopQuantities.merge(item.getLaptopId(), item.getQuantity(), Integer::sum);
             } else if (item.hasMouse()) {
-                Mouse mouse = mouseRepository.findById(item.getMouseId()).get();
-                mouse.setStockQuantity(mouse.getStockQuantity() + item.getQuantity());
-                mouseRepository.save(mouse);
+                mouseQuantities.merge(item.getMouseId(), item.getQuantity(), Integer::sum);
             }
         }
+        inventoryService.release(laptopQuantities, mouseQuantities);
         
         // Delete order items and order
         orderItemRepository.deleteByOrderId(orderId);
         orderRepository.deleteById(orderId);
     }
     
-    private List<OrderItemResponseDto> getOrderItemsResponse(Long orderId) {
-        List<OrderItem> items = orderItemRepository.findByOrderIdOrderById(orderId);
-        List<OrderItemResponseDto> responses = new ArrayList<>();
+    /**
+     * Assembles responses for a batch of orders with a fixed number of queries: one for
+     * all their items and one per product type for the referenced laptops and mice.
+     */
+    private List<OrderResponseDto> buildOrderResponses(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> orderIds = new ArrayList<>();
+        for (Order order : orders) {
+            orderIds.add(order.getId());
+        }
+        List<OrderItem> items = orderItemRepository.findByOrderIds(orderIds);
         
+        Set<Long> laptopIds = new HashSet<>();
+        Set<Long> mouseIds = new HashSet<>();
         for (OrderItem item : items) {
-            String productName;
-            String productType;
-            
             if (item.hasLaptop()) {
-                Optional<Laptop> laptopOpt = laptopRepository.findById(item.getLaptopId());
-                if (laptopOpt.isPresent()) {
-                    Laptop laptop = laptopOpt.get();
-                    productName = laptop.getBrand() + " " + laptop.getModel();
-                    productType = "Laptop";
-                } else {
-                    productName = "Unknown Laptop";
-                    productType = "Laptop";
-                }
-            } else {
-                Optional<Mouse> mouseOpt = mouseRepository.findById(item.getMouseId());
-                if (mouseOpt.isPresent()) {
-                    Mouse mouse = mouseOpt.get();
-                    productName = mouse.getBrand() + " " + mouse.getModel();
-                    productType = "Mouse";
-                } else {
-                    productName = "Unknown Mouse";
-                    productType = "Mouse";
-                }
+                laptopIds.add(item.getLaptopId());
+            } else if (item.hasMouse()) {
+                mouseIds.add(item.getMouseId());
             }
-            
-            OrderItemResponseDto response = OrderItemResponseDto.fromEntity(item, productName, productType);
+        }
+        
+        Map<Long, Laptop> laptops = new HashMap<>();
+        if (!laptopIds.isEmpty()) {
+            laptopRepository.findAllById(laptopIds).forEach(laptop -> laptops.put(laptop.getId(), laptop));
+        }
+        Map<Long, Mouse> mice = new HashMap<>();
+        if (!mouseIds.isEmpty()) {
+            mouseRepository.findAllById(mouseIds).forEach(mouse -> mice.put(mouse.getId(), mouse));
+        }
+        
+        Map<Long, List<OrderItemResponseDto>> itemsByOrder = new HashMap<>();
+        for (OrderItem item : items) {
+            itemsByOrder.computeIfAbsent(item.getOrderId(), id -> new ArrayList<>())
+                .add(toItemResponse(item, laptops, mice));
+        }
+        
+        List<OrderResponseDto> responses = new ArrayList<>();
+        for (Order order : orders) {
+            OrderResponseDto response = OrderResponseDto.fromEntity(order);
+            response.setItems(itemsByOrder.getOrDefault(order.getId(), new ArrayList<>()));
             responses.add(response);
         }
         
         return responses;
     }
+    
+    private OrderItemResponseDto toItemResponse(OrderItem item, Map<Long, Laptop> laptops, Map<Long, Mouse> mice) {
+        String productName;
+        String productType;
+        
+        if (item.hasLaptop()) {
+            Laptop laptop = laptops.get(item.getLaptopId());
+            productName = laptop != null ? laptop.getBrand() + " " + laptop.getModel() : "Unknown Laptop";
+            productType = "Laptop";
+        } else {
+            Mouse mouse = mice.get(item.getMouseId());
+            productName = mouse != null ? mouse.getBrand() + " " + mouse.getModel() : "Unknown Mouse";
+            productType = "Mouse";
+        }
+        
+        return OrderItemResponseDto.fromEntity(item, productName, productType);
+    }
+    
+    // Products, per-product demand and total of a validated order
+    private static final class ResolvedOrder {
+        private final Map<Long, Laptop> laptops = new HashMap<>();
+        private final Map<Long, Mouse> mice = new HashMap<>();
+        private final Map<Long, Integer> laptopDemand = new HashMap<>();
+        private final Map<Long, Integer> mouseDemand = new HashMap<>();
+        private BigDecimal totalAmount = BigDecimal.ZERO;
+        private int productQueries;
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.laptopstore.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset pagination cursor: the sort value and id of the last row of a page.
+ *
+ * Clients only ever see the encoded form, a URL-safe Base64 string, so the
+ * layout can change without breaking them.
+ */
+public class PageCursor {
+    
+    private static final String SEPARATOR = "|";
+    
+    private final String value;
+    private final Long id;
+    
+    public PageCursor(String value, Long id) {
+        this.value = value;
+        this.id = id;
+    }
+    
+    public String getValue() {
+        return value;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String encode() {
+        String raw = value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(raw.substring(0, separator), Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid page cursor");
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.laptopstore.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index for catalog search.
+ *
+ * Each product is indexed as a fixed list of text fields (e.g. brand, model,
+ * processor, graphics). Terms of three or more characters are looked up through a
+ * trigram index and then verified against the stored text, so they match anywhere
+ * inside a field just like the old {@code LIKE '%term%'} query did. Shorter terms
+ * match the start of a word. Every term of a query has to match some field;
+ * results are ranked by field weight and by how early in the field the term hits.
+ */
+public class ProductSearchIndex {
+    
+    private static final int GRAM = 3;
+    
+    private final double[] fieldWeights;
+    private final Map<Long, String[]> documents = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    
+    public ProductSearchIndex(double... fieldWeights) {
+        this.fieldWeights = fieldWeights;
+    }
+    
+    public void index(Long id, String... fields) {
+        String[] normalized = new String[fieldWeights.length];
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = i < fields.length && fields[i] != null ? fields[i].toLowerCase(Locale.ROOT) : "";
+        }
+        
+        String[] previous = documents.put(id, normalized);
+        if (previous != null) {
+            for (String key : keysOf(previous)) {
+                Set<Long> ids = postings.get(key);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+        }
+        for (String key : keysOf(normalized)) {
+            postings.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+    
+    public void remove(Long id) {
+        String[] previous = documents.remove(id);
+        if (previous != null) {
+            for (String key : keysOf(previous)) {
+                Set<Long> ids = postings.get(key);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+        }
+    }
+    
+    public int size() {
+        return documents.size();
+    }
+    
+    /**
+     * Returns the ids of the best matching products, most relevant first.
+     */
+    public List<Long> search(String query, int limit) {
+        if (query == null) {
+            return Collections.emptyList();
+        }
+        String[] terms = query.toLowerCase(Locale.ROOT).trim().split("\\s+");
+        if (terms.length == 0 || terms[0].isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Set<Long> candidates = null;
+        for (String term : terms) {
+            Set<Long> termCandidates = candidatesFor(term);
+            if (candidates == null) {
+                candidates = new HashSet<>(termCandidates);
+            } else {
+                candidates.retainAll(termCandidates);
+            }
+            if (candidates.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        
+        Map<Long, Double> scores = new HashMap<>();
+        for (Long id : candidates) {
+            String[] fields = documents.get(id);
+            if (fields == null) {
+                continue;
+            }
+            double score = 0;
+            for (String term : terms) {
+                double termScore = score(fields, term);
+                if (termScore == 0) {
+                    score = 0;
+                    break;
+                }
+                score += termScore;
+            }
+            if (score > 0) {
+                scores.put(id, score);
+            }
+        }
+        
+        List<Long> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort(Comparator.comparing((Long id) -> scores.get(id)).reversed().thenComparing(id -> id));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+    
+    private Set<Long> candidatesFor(String term) {
+        if (term.length() < GRAM) {
+            return postings.getOrDefault(term, Collections.emptySet());
+        }
+        // Intersect trigram postings, smallest first; false positives are removed when scoring
+        List<Set<Long>> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            Set<Long> ids = postings.get(term.substring(i, i + GRAM));
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+    
+    private double score(String[] fields, String term) {
+        double best = 0;
+        for (int i = 0; i < fields.length; i++) {
+            int position = fields[i].indexOf(term);
+            boolean wordStart = position == 0 || (position > 0 && !Character.isLetterOrDigit(fields[i].charAt(position - 1)));
+            if (term.length() < GRAM && !wordStart) {
+                // Short terms only count at the start of a word
+                position = findWordStart(fields[i], term);
+                wordStart = position >= 0;
+            }
+            if (position < 0) {
+                continue;
+            }
+            double match = position == 0 ? 3 : wordStart ? 2 : 1;
+            best = Math.max(best, fieldWeights[i] * match);
+        }
+        return best;
+    }
+    
+    private static int findWordStart(String field, String term) {
+        int position = field.indexOf(term);
+        while (position > 0 && Character.isLetterOrDigit(field.charAt(position - 1))) {
+            position = field.indexOf(term, position + 1);
+        }
+        return position;
+    }
+    
+    private static Set<String> keysOf(String[] fields) {
+        Set<String> keys = new HashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i + GRAM <= field.length(); i++) {
+                keys.add(field.substring(i, i + GRAM));
+            }
+            for (String word : field.split("[^\\p{L}\\p{N}]+")) {
+                for (int length = 1; length < GRAM && length <= word.length(); length++) {
+                    // Word prefixes are shorter than a trigram, so the two kinds of key never collide
+                    keys.add(word.substring(0, length));
+                }
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.laptopstore.service;
+
+import com.example.laptopstore.entity.RefreshToken;
+import com.example.laptopstore.entity.User;
+import com.example.laptopstore.repository.RefreshTokenRepository;
+import com.example.laptopstore.repository.UserRepository;
+import com.example.laptopstore.security.TokenRevocationList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Issues and rotates refresh tokens.
+ *
+ * A refresh token is a random opaque string; only its hash is stored. Every refresh
+ * consumes the presented token and issues a new one. Presenting a token that was
+ * already consumed means it was copied, so the whole session family is cut off: all
+ * of the user's refresh tokens are revoked and their live access tokens are added
+ * to the in-memory revocation list.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private TokenRevocationList revocationList;
+    
+    @Value("${jwt.refresh-expiration:1209600000}") // 14 days in milliseconds
+    private long refreshExpirationMs;
+    
+    private final SecureRandom random = new SecureRandom();
+    
+    public String issue(Long userId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        
+        LocalDateTime expiresAt = LocalDateTime.now().plus(refreshExpirationMs, ChronoUnit.MILLIS);
+        refreshTokenRepository.save(new RefreshToken(userId, hash(token), expiresAt));
+        return token;
+    }
+    
+    /**
+     * Consumes the refresh token and issues its successor. Returns empty if the
+     * token is unknown, expired or was already used.
+     */
+    public Optional<Rotation> rotate(String token) {
+        Optional<RefreshToken> stored = refreshTokenRepository.findByTokenHash(hash(token));
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        RefreshToken refreshToken = stored.get();
+        if (refreshToken.isRevoked() || refreshTokenRepository.revoke(refreshToken.getId()) == 0) {
+            logger.warn("Refresh token reuse detected for user {}, revoking all sessions", refreshToken.getUserId());
+            refreshTokenRepository.revokeAllForUser(refreshToken.getUserId());
+            revocationList.revokeAllForUser(refreshToken.getUserId());
+            return Optional.empty();
+        }
+        if (refreshToken.getExpiresAt().isBefore(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        
+        Optional<User> user = userRepository.findById(refreshToken.getUserId());
+        return user.map(u -> new Rotation(u, issue(u.getId())));
+    }
+    
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+            .ifPresent(refreshToken -> refreshTokenRepository.revoke(refreshToken.getId()));
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.debug("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    public static class Rotation {
+        private final User user;
+        private final String refreshToken;
+        
+        public Rotation(User user, String refreshToken) {
+            this.user = user;
+            this.refreshToken = refreshToken;
+        }
+        
+        public User getUser() {
+            return user;
+        }
+        
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
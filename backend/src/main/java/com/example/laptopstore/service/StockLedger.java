@@ -0,0 +1,348 @@
+package com.example.laptopstore.service;
+
+import com.example.laptopstore.config.ReadWriteRoutingDataSource;
+import com.example.laptopstore.entity.Laptop;
+import com.example.laptopstore.entity.Mouse;
+import com.example.laptopstore.entity.OrderItem;
+import com.example.laptopstore.exception.InsufficientStockException;
+import com.example.laptopstore.repository.LaptopRepository;
+import com.example.laptopstore.repository.MouseRepository;
+import com.example.laptopstore.repository.OrderItemRepository;
+import com.example.laptopstore.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-process stock ledger, switched on with {@code inventory.ledger.enabled}. It holds
+ * the available quantity of every laptop and mouse as one atomic counter per product,
+ * striped by id, so checkouts reserve with compare-and-set instead of queueing on the
+ * product row lock. Only valid while a single instance takes orders.
+ *
+ * Reserved units leave the counters at once and come back if the order's transaction
+ * rolls back. Committed reservations and releases are journaled and written to
+ * {@code stock_quantity} every {@code inventory.ledger.flush-interval-ms}, as one JDBC
+ * batch per table. Orders keep {@code stock_pending} set until the flush that persists
+ * their decrement, so on startup the decrements of still-pending orders are applied
+ * before the counters are loaded. A release lost in a crash leaves stock
+ * under-counted, never over-sold.
+ */
+@Component
+public class StockLedger {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StockLedger.class);
+    
+    private static final int STRIPES = 16;
+    
+    @Autowired
+    private LaptopRepository laptopRepository;
+    
+    @Autowired
+    private MouseRepository mouseRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${inventory.ledger.enabled:false}")
+    private boolean enabled;
+    
+    private final Counters laptops = new Counters("laptop", id -> laptopRepository.findById(id).map(Laptop::getStockQuantity));
+    private final Counters mice = new Counters("mouse", id -> mouseRepository.findById(id).map(Mouse::getStockQuantity));
+    private final Queue<Adjustment> journal = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // Pending orders are reconciled even with the ledger off, in case a previous run had it on
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            ensureLoaded();
+        } else {
+            reconcilePendingOrders();
+        }
+    }
+    
+    public int laptopStock(Long laptopId) {
+        ensureLoaded();
+        return laptops.counter(laptopId).get();
+    }
+    
+    public int mouseStock(Long mouseId) {
+        ensureLoaded();
+        return mice.counter(mouseId).get();
+    }
+    
+    /**
+     * Takes the quantities for order {@code orderId}, all or nothing, and throws if any
+     * product is short. Must run inside a transaction: the decrement is journaled when
+     * it commits and the units are handed back if it rolls back.
+     */
+    public void reserve(Long orderId, Map<Long, Integer> laptopQuantities, Map<Long, Integer> mouseQuantities) {
+        ensureLoaded();
+        Map<Long, Integer> takenLaptops = new HashMap<>();
+        Map<Long, Integer> takenMice = new HashMap<>();
+        String shortage = laptops.takeAll(laptopQuantities, takenLaptops);
+        if (shortage == null) {
+            shortage = mice.takeAll(mouseQuantities, takenMice);
+        }
+        if (shortage != null) {
+            laptops.giveAll(takenLaptops);
+            mice.giveAll(takenMice);
+            throw new InsufficientStockException(shortage);
+        }
+        
+        afterCompletion(committed -> {
+            if (committed) {
+                journal.add(new Adjustment(orderId, negate(laptopQuantities), negate(mouseQuantities)));
+            } else {
+                laptops.giveAll(laptopQuantities);
+                mice.giveAll(mouseQuantities);
+            }
+        });
+    }
+    
+    /**
+     * Returns units to the counters, and journals the increment, once the current
+     * transaction commits.
+     */
+    public void release(Map<Long, Integer> laptopQuantities, Map<Long, Integer> mouseQuantities) {
+        ensureLoaded();
+        afterCompletion(committed -> {
+            if (committed) {
+                laptops.giveAll(laptopQuantities);
+                mice.giveAll(mouseQuantities);
+                journal.add(new Adjustment(null, Map.copyOf(laptopQuantities), Map.copyOf(mouseQuantities)));
+            }
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:200}")
+    public void flush() {
+        if (!loaded) {
+            return;
+        }
+        List<Adjustment> batch = new ArrayList<>();
+        for (Adjustment adjustment = journal.poll(); adjustment != null; adjustment = journal.poll()) {
+            batch.add(adjustment);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, Integer> laptopDeltas = new HashMap<>();
+        Map<Long, Integer> mouseDeltas = new HashMap<>();
+        List<Long> orderIds = new ArrayList<>();
+        for (Adjustment adjustment : batch) {
+            adjustment.laptopDeltas.forEach((id, delta) -> laptopDeltas.merge(id, delta, Integer::sum));
+            adjustment.mouseDeltas.forEach((id, delta) -> mouseDeltas.merge(id, delta, Integer::sum));
+            if (adjustment.orderId != null) {
+                orderIds.add(adjustment.orderId);
+            }
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(laptopDeltas, mouseDeltas, orderIds));
+            logger.debug("Flushed {} stock adjustments covering {} laptops and {} mice",
+                    batch.size(), laptopDeltas.size(), mouseDeltas.size());
+        } catch (RuntimeException e) {
+            // Nothing was written; the next flush retries the same adjustments
+            journal.addAll(batch);
+            logger.warn("Stock flush failed, {} adjustments kept for retry: {}", batch.size(), e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+    
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            reconcilePendingOrders();
+            // Read from the primary: a replica may not have the reconciled stock yet
+            ReadWriteRoutingDataSource.onPrimary(() -> {
+                laptopRepository.findAll().forEach(laptop -> laptops.set(laptop.getId(), laptop.getStockQuantity()));
+                mouseRepository.findAll().forEach(mouse -> mice.set(mouse.getId(), mouse.getStockQuantity()));
+                return null;
+            });
+            loaded = true;
+            logger.info("Stock ledger loaded");
+        } finally {
+            loadLock.unlock();
+        }
+    }
+    
+    private void reconcilePendingOrders() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> orderIds = orderRepository.findStockPendingOrderIds();
+            if (orderIds.isEmpty()) {
+                return;
+            }
+            Map<Long, Integer> laptopDeltas = new HashMap<>();
+            Map<Long, Integer> mouseDeltas = new HashMap<>();
+            for (OrderItem item : orderItemRepository.findByOrderIds(orderIds)) {
+                if (item.hasLaptop()) {
+                    laptopDeltas.merge(item.getLaptopId(), -item.getQuantity(), Integer::sum);
+                } else if (item.hasMouse()) {
+                    mouseDeltas.merge(item.getMouseId(), -item.getQuantity(), Integer::sum);
+                }
+            }
+            apply(laptopDeltas, mouseDeltas, orderIds);
+            logger.info("Applied unflushed stock decrements of {} orders", orderIds.size());
+        });
+    }
+    
+    // Rows are updated by ascending id, the same order InventoryService locks them in
+    private void apply(Map<Long, Integer> laptopDeltas, Map<Long, Integer> mouseDeltas, List<Long> orderIds) {
+        batchUpdate("UPDATE laptops SET stock_quantity = stock_quantity + ?, version = version + 1 WHERE id = ?", deltaRows(laptopDeltas));
+        batchUpdate("UPDATE mice SET stock_quantity = stock_quantity + ?, version = version + 1 WHERE id = ?", deltaRows(mouseDeltas));
+        batchUpdate("UPDATE orders SET stock_pending = FALSE WHERE id = ?",
+                orderIds.stream().sorted().map(id -> new Object[] { id }).toList());
+        eventPublisher.publishEvent(CatalogChangedEvent.stock(laptopDeltas.keySet(), mouseDeltas.keySet()));
+    }
+    
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+    
+    private static List<Object[]> deltaRows(Map<Long, Integer> deltas) {
+        List<Object[]> rows = new ArrayList<>();
+        new TreeMap<>(deltas).forEach((id, delta) -> {
+            if (delta != 0) {
+                rows.add(new Object[] { delta, id });
+            }
+        });
+        return rows;
+    }
+    
+    private static Map<Long, Integer> negate(Map<Long, Integer> quantities) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        quantities.forEach((id, quantity) -> deltas.put(id, -quantity));
+        return deltas;
+    }
+    
+    private static void afterCompletion(Consumer<Boolean> action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+    
+    private static final class Counters {
+        private final String productType;
+        private final Function<Long, Optional<Integer>> stockLoader;
+        private final Map<Long, AtomicInteger>[] stripes;
+        
+        @SuppressWarnings("unchecked")
+        private Counters(String productType, Function<Long, Optional<Integer>> stockLoader) {
+            this.productType = productType;
+            this.stockLoader = stockLoader;
+            this.stripes = new Map[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new ConcurrentHashMap<>();
+            }
+        }
+        
+        private AtomicInteger counter(Long id) {
+            Map<Long, AtomicInteger> stripe = stripes[Math.floorMod(id, STRIPES)];
+            AtomicInteger counter = stripe.get(id);
+            if (counter == null) {
+                // Added after the ledger loaded: nothing is journaled for it, so its row is exact
+                int stock = stockLoader.apply(id)
+                    .orElseThrow(() -> new RuntimeException("Product not found: " + productType + " " + id));
+                stripe.putIfAbsent(id, new AtomicInteger(stock));
+                counter = stripe.get(id);
+            }
+            return counter;
+        }
+        
+        private void set(Long id, int stock) {
+            stripes[Math.floorMod(id, STRIPES)].put(id, new AtomicInteger(stock));
+        }
+        
+        // Returns the shortage message for the first product that is short, or null
+        private String takeAll(Map<Long, Integer> quantities, Map<Long, Integer> taken) {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                AtomicInteger counter = counter(entry.getKey());
+                int quantity = entry.getValue();
+                int current;
+                do {
+                    current = counter.get();
+                    if (current < quantity) {
+                        return "Insufficient stock for " + productType + " with id: " + entry.getKey();
+                    }
+                } while (!counter.compareAndSet(current, current - quantity));
+                taken.put(entry.getKey(), quantity);
+            }
+            return null;
+        }
+        
+        private void giveAll(Map<Long, Integer> quantities) {
+            quantities.forEach((id, quantity) -> counter(id).addAndGet(quantity));
+        }
+    }
+    
+    private static final class Adjustment {
+        private final Long orderId;
+        private final Map<Long, Integer> laptopDeltas;
+        private final Map<Long, Integer> mouseDeltas;
+        
+        private Adjustment(Long orderId, Map<Long, Integer> laptopDeltas, Map<Long, Integer> mouseDeltas) {
+            this.orderId = orderId;
+            this.laptopDeltas = laptopDeltas;
+            this.mouseDeltas = mouseDeltas;
+        }
+    }
+}
@@ -5,10 +5,15 @@ import com.example.laptopstore.dto.UserResponseDto;
 import com.example.laptopstore.entity.User;
 import com.example.laptopstore.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Locale;
 import java.util.Optional;
 
 @Service
@@ -19,18 +24,36 @@ public class UserService {
     private UserRepository userRepository;
     
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
     
+    @Value("${auth.availability.expected-users:100000}")
+    private long expectedUsers;
+    
+    // Usernames and emails ("u:"/"e:" prefixed, lowercased) of every registered user
+    private volatile BloomFilter takenFilter;
+    
+    /**
+     * Loads the availability filter once the application is up. Until then the
+     * availability checks simply go to the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadAvailabilityFilter() {
+        BloomFilter filter = new BloomFilter(2 * expectedUsers, 0.01);
+        userRepository.findAllUsernames().forEach(username -> filter.add(usernameKey(username)));
+        userRepository.findAllEmails().forEach(email -> filter.add(emailKey(email)));
+        takenFilter = filter;
+    }
+    
+    /**
+     * Inserts the user with a single statement and lets the unique constraints on
+     * username and email catch duplicates, which also closes the race between a
+     * separate existence check and the insert. Runs outside a transaction so no
+     * connection is held while the password is hashed.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserResponseDto createUser(UserCreateDto userCreateDto) {
-        if (userRepository.existsByUsername(userCreateDto.getUsername())) {
-            throw new RuntimeException("Username already exists");
-        }
-        
-        if (userRepository.existsByEmail(userCreateDto.getEmail())) {
-            throw new RuntimeException("Email already exists");
-        }
-        
-        String encodedPassword = passwordEncoder.encode(userCreateDto.getPassword());
+        String encodedPassword = passwordHashingService.encode(userCreateDto.getPassword());
         
         User user = new User(
             userCreateDto.getUsername(),
@@ -38,10 +61,50 @@ public class UserService {
             encodedPassword
         );
         
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+            if (message.contains(User.USERNAME_CONSTRAINT)) {
+                throw new RuntimeException("Username already exists");
+            }
+            if (message.contains(User.EMAIL_CONSTRAINT)) {
+                throw new RuntimeException("Email already exists");
+            }
+            throw new RuntimeException("Registration failed");
+        }
+        
+        BloomFilter filter = takenFilter;
+        if (filter != null) {
+            filter.add(usernameKey(savedUser.getUsername()));
+            filter.add(emailKey(savedUser.getEmail()));
+        }
         return new UserResponseDto(savedUser);
     }
     
+    /**
+     * Answers from the Bloom filter when it rules the username out, which is the
+     * common case while someone is typing; only a possible match costs a query.
+     */
+    @Transactional(readOnly = true)
+    public boolean isUsernameAvailable(String username) {
+        BloomFilter filter = takenFilter;
+        if (filter != null && !filter.mightContain(usernameKey(username))) {
+            return true;
+        }
+        return !userRepository.existsByUsername(username);
+    }
+    
+    @Transactional(readOnly = true)
+    public boolean isEmailAvailable(String email) {
+        BloomFilter filter = takenFilter;
+        if (filter != null && !filter.mightContain(emailKey(email))) {
+            return true;
+        }
+        return !userRepository.existsByEmail(email);
+    }
+    
     @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
@@ -52,7 +115,18 @@ public class UserService {
         return userRepository.findById(id);
     }
     
+    // Outside a transaction, like createUser: no connection is held while the login
+    // waits for the hashing pool
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean validatePassword(String rawPassword, String encodedPassword) {
-        return passwordEncoder.matches(rawPassword, encodedPassword);
+        return passwordHashingService.matches(rawPassword, encodedPassword);
+    }
+    
+    private static String usernameKey(String username) {
+        return "u:" + username.toLowerCase(Locale.ROOT);
+    }
+    
+    private static String emailKey(String email) {
+        return "e:" + email.toLowerCase(Locale.ROOT);
     }
 }
@@ -9,7 +9,7 @@ jest.mock('./services/api', () => ({
     getMice: jest.fn(() => Promise.resolve([])),
     login: jest.fn(() => Promise.resolve({ access_token: 'fake-token', user_id: 1 })),
     register: jest.fn(() => Promise.resolve({ access_token: 'fake-token', user_id: 1 })),
-    getOrders: jest.fn(() => Promise.resolve([])),
+    getOrders: jest.fn(() => Promise.resolve({ items: [], next: null })),
     createOrder: jest.fn(() => Promise.resolve({ id: 1, total_amount: 100 })),
   }
 }));
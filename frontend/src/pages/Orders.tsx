@@ -7,7 +7,9 @@ import './Orders.css';
 
 const Orders: React.FC = () => {
   const [orders, setOrders] = useState<Order[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [isLoading, setIsLoading] = useState(true);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
   const [error, setError] = useState<string | null>(null);
   const [expandedOrders, setExpandedOrders] = useState<Set<number>>(new Set());
 
@@ -15,8 +17,9 @@ const Orders: React.FC = () => {
     const fetchOrders = async () => {
       try {
         setIsLoading(true);
-        const ordersData = await apiService.getOrders();
-        setOrders(ordersData);
+        const page = await apiService.getOrders();
+        setOrders(page.items);
+        setNextCursor(page.next);
         setError(null);
       } catch (err: any) {
         setError('Failed to load orders');
@@ -62,8 +65,9 @@ const Orders: React.FC = () => {
     setError(null);
     setIsLoading(true);
     try {
-      const ordersData = await apiService.getOrders();
-      setOrders(ordersData);
+      const page = await apiService.getOrders();
+      setOrders(page.items);
+      setNextCursor(page.next);
     } catch (err: any) {
       setError('Failed to load orders');
     } finally {
@@ -71,6 +75,22 @@ const Orders: React.FC = () => {
     }
   };
 
+  const handleLoadMore = async () => {
+    if (!nextCursor) {
+      return;
+    }
+    setIsLoadingMore(true);
+    try {
+      const page = await apiService.getOrders(nextCursor);
+      setOrders(prev => [...prev, ...page.items]);
+      setNextCursor(page.next);
+    } catch (err: any) {
+      console.error('Error loading more orders:', err);
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
   if (isLoading) {
     return (
       <div className="orders-page">
@@ -214,6 +234,16 @@ const Orders: React.FC = () => {
                 )}
               </div>
             ))}
+
+            {nextCursor && (
+              <button
+                onClick={handleLoadMore}
+                className="load-more-btn"
+                disabled={isLoadingMore}
+              >
+                {isLoadingMore ? 'Loading...' : 'Load More Orders'}
+              </button>
+            )}
           </div>
         )}
       </div>
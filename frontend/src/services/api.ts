@@ -8,6 +8,7 @@ import type {
   Order, 
   OrderCreate,
   OrderUpdate,
+  CursorPage,
   ApiError 
 } from '../types/api';
 
@@ -30,15 +31,46 @@ api.interceptors.request.use((config) => {
   return config;
 });
 
+// Refresh once per burst of 401s; concurrent failures wait for the same refresh
+let refreshInFlight: Promise<string> | null = null;
+
+const refreshAccessToken = (): Promise<string> => {
+  if (!refreshInFlight) {
+    const refreshToken = localStorage.getItem('refresh_token');
+    refreshInFlight = (refreshToken
+      ? axios.post<Token>(`${API_BASE_URL}/api/v1/auth/refresh`, { refresh_token: refreshToken })
+          .then((response) => {
+            localStorage.setItem('access_token', response.data.access_token);
+            localStorage.setItem('refresh_token', response.data.refresh_token);
+            return response.data.access_token;
+          })
+      : Promise.reject(new Error('No refresh token'))
+    ).finally(() => {
+      refreshInFlight = null;
+    });
+  }
+  return refreshInFlight;
+};
+
 // Response interceptor for error handling
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
-    if (error.response?.status === 401) {
-      // Token expired or invalid
-      localStorage.removeItem('access_token');
-      localStorage.removeItem('user');
-      window.location.href = '/login';
+  async (error) => {
+    const original = error.config;
+    const isAuthCall = original?.url?.startsWith('/api/v1/auth/');
+    if (error.response?.status === 401 && original && !original._retried && !isAuthCall) {
+      // Access token expired or revoked: trade the refresh token for a new one and retry
+      original._retried = true;
+      try {
+        const token = await refreshAccessToken();
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch (refreshError) {
+        localStorage.removeItem('access_token');
+        localStorage.removeItem('refresh_token');
+        localStorage.removeItem('user');
+        window.location.href = '/login';
+      }
     }
     return Promise.reject(error);
   }
@@ -62,6 +94,15 @@ class ApiService {
     return response.data;
   }
 
+  async logout(): Promise<void> {
+    // Read the tokens now; the caller clears storage before the request goes out
+    const accessToken = localStorage.getItem('access_token');
+    const refreshToken = localStorage.getItem('refresh_token');
+    await api.post('/api/v1/auth/logout', refreshToken ? { refresh_token: refreshToken } : {}, {
+      headers: accessToken ? { Authorization: `Bearer ${accessToken}` } : {},
+    });
+  }
+
   // Laptop methods
   async getLaptops(): Promise<Laptop[]> {
     const response = await api.get('/api/v1/laptops');
@@ -79,8 +120,11 @@ class ApiService {
     return response.data;
   }
 
-  async getOrders(): Promise<Order[]> {
-    const response = await api.get('/api/v1/orders');
+  // One keyset page of the history; pass its `next` back to load the following page
+  async getOrders(cursor?: string): Promise<CursorPage<Order>> {
+    const response = await api.get<CursorPage<Order>>('/api/v1/orders', {
+      params: cursor ? { cursor } : {},
+    });
     return response.data;
   }
 
@@ -21,6 +21,8 @@ export interface UserLogin {
 export interface Token {
   access_token: string;
   token_type: string;
+  refresh_token: string;
+  expires_in: number;
 }
 
 export interface Laptop {
@@ -85,6 +87,12 @@ export interface Order {
   updated_at: string;
 }
 
+// Keyset-paginated list; pass `next` back as `cursor` to fetch the following page
+export interface CursorPage<T> {
+  items: T[];
+  next: string | null;
+}
+
 export interface OrderUpdate {
   items: OrderItem[];
 }